@@ -0,0 +1,107 @@
+package org.opentripplanner.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares the JSON results of a JMH run with a stored baseline and exits with status 1 if a
+ * benchmark got slower, or allocates more per operation, than the tolerance allows.
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar -prof gc -rf json -rff baseline.json
+ * ... change the code ...
+ * java -jar benchmarks/target/benchmarks.jar -prof gc -rf json -rff results.json
+ * java -cp benchmarks/target/benchmarks.jar org.opentripplanner.benchmarks.CompareToBaseline \
+ *     baseline.json results.json 10
+ * </pre>
+ */
+public final class CompareToBaseline {
+
+  private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+  private CompareToBaseline() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: CompareToBaseline <baseline.json> <results.json> [tolerance %]");
+      System.exit(2);
+    }
+    var tolerance = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.1;
+    var baseline = read(Path.of(args[0]));
+    var results = read(Path.of(args[1]));
+
+    var regressions = 0;
+    for (var entry : results.entrySet()) {
+      var before = baseline.get(entry.getKey());
+      if (before == null) {
+        System.out.printf("%-90s new%n", entry.getKey());
+        continue;
+      }
+      var after = entry.getValue();
+      var change = after.relativeChange(before);
+      var regressed = change > tolerance;
+      var line =
+          "%-90s %12.3f -> %12.3f %-10s %+7.1f%%"
+              .formatted(entry.getKey(), before.score, after.score, after.unit, change * 100);
+      if (before.allocation >= 0 && after.allocation >= 0) {
+        var allocationChange =
+            before.allocation == 0
+                ? (after.allocation > 0 ? 1 : 0)
+                : (after.allocation - before.allocation) / before.allocation;
+        regressed |= allocationChange > tolerance;
+        line += "  alloc %10.0f -> %10.0f B/op".formatted(before.allocation, after.allocation);
+      }
+      System.out.println(regressed ? line + "  REGRESSION" : line);
+      if (regressed) {
+        regressions++;
+      }
+    }
+    if (regressions > 0) {
+      System.out.printf(
+          "%d benchmark(s) regressed by more than %.0f%%%n", regressions, tolerance * 100);
+      System.exit(1);
+    }
+  }
+
+  private static Map<String, Result> read(Path file) throws IOException {
+    var results = new TreeMap<String, Result>();
+    for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+      var metric = run.path("primaryMetric");
+      var allocation = run.path("secondaryMetrics").path(ALLOCATION);
+      if (allocation.isMissingNode()) {
+        // older JMH versions prefix the profiler metrics with a middle dot
+        allocation = run.path("secondaryMetrics").path("·" + ALLOCATION);
+      }
+      results.put(
+          key(run),
+          new Result(
+              run.path("mode").asText(),
+              metric.path("score").asDouble(),
+              metric.path("scoreUnit").asText(),
+              allocation.isMissingNode() ? -1 : allocation.path("score").asDouble()));
+    }
+    return results;
+  }
+
+  private static String key(JsonNode run) {
+    var params = new LinkedHashMap<String, String>();
+    run.path("params").properties().forEach(e -> params.put(e.getKey(), e.getValue().asText()));
+    return params.isEmpty()
+        ? run.path("benchmark").asText()
+        : run.path("benchmark").asText() + params;
+  }
+
+  private record Result(String mode, double score, String unit, double allocation) {
+
+    /** The relative change, where a positive value is a slowdown in every mode. */
+    double relativeChange(Result baseline) {
+      var change = (score - baseline.score) / baseline.score;
+      return "thrpt".equals(mode) ? -change : change;
+    }
+  }
+}
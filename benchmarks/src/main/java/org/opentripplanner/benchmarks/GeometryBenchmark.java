@@ -0,0 +1,86 @@
+package org.opentripplanner.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.client.model.LegGeometry;
+import org.opentripplanner.client.model.Place;
+
+/** Turning the geometries of a plan into JTS geometries. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+  /** Leg geometries of different lengths. */
+  @State(Scope.Benchmark)
+  public static class Polyline {
+
+    @Param({"10", "200", "1000"})
+    public int points;
+
+    private String encoded;
+    private LegGeometry geometry;
+
+    @Setup
+    public void setUp() {
+      encoded = PlanResponses.polyline(points);
+      geometry = new LegGeometry(encoded);
+    }
+  }
+
+  private Place place;
+
+  @Setup
+  public void setUp() {
+    place =
+        PlanResponses.tripPlan(PlanResponses.Size.RECORDED)
+            .itineraries()
+            .getFirst()
+            .legs()
+            .getFirst()
+            .from();
+  }
+
+  /** Decodes the polyline on every invocation, like the first call on a freshly read leg. */
+  @Benchmark
+  public LineString legGeometryToLinestring(Polyline polyline) {
+    return new LegGeometry(polyline.encoded).toLinestring();
+  }
+
+  /** Later calls on the same leg only copy the decoded coordinates. */
+  @Benchmark
+  public LineString legGeometryCachedToLinestring(Polyline polyline) {
+    return polyline.geometry.toLinestring();
+  }
+
+  @Benchmark
+  public Envelope legGeometryDecodeEnvelope(Polyline polyline) {
+    return new LegGeometry(polyline.encoded).envelope();
+  }
+
+  @Benchmark
+  public String legGeometrySimplifyAndEncode(Polyline polyline) {
+    return polyline.geometry.simplify(0.0001).toGoogleEncoding();
+  }
+
+  @Benchmark
+  public Point placePoint() {
+    return place.point();
+  }
+}
@@ -0,0 +1,53 @@
+package org.opentripplanner.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.assertions.ItineraryAssertions;
+import org.opentripplanner.client.model.TripPlan;
+
+/**
+ * Matching a plan against {@link ItineraryAssertions}, where only the last itinerary matches so
+ * that all of them are examined.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItineraryAssertionsBenchmark {
+
+  @Param({"MEDIUM", "LARGE"})
+  public PlanResponses.Size size;
+
+  private TripPlan plan;
+  private ItineraryAssertions assertions;
+
+  @Setup
+  public void setUp() {
+    plan = PlanResponses.tripPlan(size);
+    assertions =
+        new ItineraryAssertions()
+            .hasLeg()
+            .withMode("TRAM")
+            .withRouteShortName(PlanResponses.LAST_ROUTE)
+            .hasLeg()
+            .withMode("TRAM")
+            .withRouteShortName(PlanResponses.LAST_ROUTE);
+  }
+
+  @Benchmark
+  public void assertMatches() {
+    assertions.assertMatches(plan);
+  }
+}
@@ -0,0 +1,115 @@
+package org.opentripplanner.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.leonard.PolylineUtils;
+import io.leonard.Position;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Objects;
+import org.opentripplanner.client.model.TripPlan;
+import org.opentripplanner.client.serialization.GraphQLResponseReader;
+import org.opentripplanner.client.serialization.ObjectMappers;
+
+/**
+ * Plan responses of various sizes, which are built from a recorded response by repeating its
+ * itineraries and legs and replacing the leg geometries with longer ones.
+ */
+public final class PlanResponses {
+
+  public static final ZoneId ZONE = ZoneId.of("Europe/Oslo");
+
+  /** The route short name of the transit legs of the last itinerary only. */
+  public static final String LAST_ROUTE = "99";
+
+  public enum Size {
+    /** The recorded response with one itinerary of two legs. */
+    RECORDED(0, 0, 0),
+    MEDIUM(5, 6, 200),
+    LARGE(20, 10, 1000);
+
+    private final int itineraries;
+    private final int legs;
+    private final int points;
+
+    Size(int itineraries, int legs, int points) {
+      this.itineraries = itineraries;
+      this.legs = legs;
+      this.points = points;
+    }
+  }
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private PlanResponses() {}
+
+  /** The response body as it is sent by the server. */
+  public static byte[] json(Size size) {
+    try (var in =
+        Objects.requireNonNull(PlanResponses.class.getResourceAsStream("/responses/plan.json"))) {
+      var recorded = MAPPER.readTree(in);
+      if (size == Size.RECORDED) {
+        return MAPPER.writeValueAsBytes(recorded);
+      }
+      return MAPPER.writeValueAsBytes(scale(recorded, size));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** The deserialized response. */
+  public static TripPlan tripPlan(Size size) {
+    try {
+      return reader()
+          .read(
+              new ByteArrayInputStream(json(size)),
+              "plan",
+              TypeFactory.defaultInstance().constructType(TripPlan.class));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static GraphQLResponseReader reader() {
+    return new GraphQLResponseReader(ObjectMappers.withTimezone(ZONE));
+  }
+
+  /** An encoded polyline of a zigzag line with the given number of points. */
+  public static String polyline(int points) {
+    var positions = new ArrayList<Position>(points);
+    for (int i = 0; i < points; i++) {
+      positions.add(Position.fromLngLat(10.75 + i * 0.0003, 59.91 + (i % 7) * 0.0002));
+    }
+    return PolylineUtils.encode(positions, 5);
+  }
+
+  private static JsonNode scale(JsonNode recorded, Size size) {
+    var plan = (ObjectNode) recorded.path("data").path("plan");
+    var template = plan.path("itineraries").get(0);
+    var walk = template.path("legs").get(0);
+    var transit = template.path("legs").get(1);
+    var geometry = polyline(size.points);
+
+    var itineraries = plan.putArray("itineraries");
+    for (int i = 0; i < size.itineraries; i++) {
+      var itinerary = (ObjectNode) template.deepCopy();
+      ArrayNode legs = itinerary.putArray("legs");
+      for (int l = 0; l < size.legs; l++) {
+        var leg = (ObjectNode) (l % 2 == 0 ? walk : transit).deepCopy();
+        ((ObjectNode) leg.path("legGeometry")).put("points", geometry).put("length", size.points);
+        if (i == size.itineraries - 1 && leg.path("route").isObject()) {
+          ((ObjectNode) leg.path("route")).put("shortName", LAST_ROUTE);
+        }
+        legs.add(leg);
+      }
+      itineraries.add(itinerary);
+    }
+    return recorded;
+  }
+}
@@ -0,0 +1,53 @@
+package org.opentripplanner.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.api.types.ItineraryResponseProjection;
+import org.opentripplanner.api.types.PlanResponseProjection;
+import org.opentripplanner.client.model.Coordinate;
+import org.opentripplanner.client.model.RequestMode;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+import org.opentripplanner.client.query.PlanQuery;
+import org.opentripplanner.client.query.PreparedQuery;
+import org.opentripplanner.client.serialization.ObjectMappers;
+
+/** Turning plan parameters into the body of the HTTP request. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanSerializationBenchmark {
+
+  private final ObjectMapper mapper = ObjectMappers.withTimezone(PlanResponses.ZONE);
+  private final PreparedQuery query =
+      PlanQuery.compile(
+          new PlanResponseProjection()
+              .itineraries(new ItineraryResponseProjection().duration())
+              .nextPageCursor());
+  private final TripPlanParameters params =
+      TripPlanParameters.builder()
+          .withFrom(new Coordinate(59.91234, 10.71234))
+          .withTo(new Coordinate(59.95, 10.8))
+          .withTime(LocalDateTime.of(2026, 1, 1, 8, 30))
+          .withModes(RequestMode.TRANSIT, RequestMode.WALK)
+          .withNumberOfItineraries(5)
+          .build();
+
+  @Benchmark
+  public String requestBody() throws JsonProcessingException {
+    return query.toHttpJsonBody(mapper.writeValueAsString(PlanQuery.variables(params)));
+  }
+}
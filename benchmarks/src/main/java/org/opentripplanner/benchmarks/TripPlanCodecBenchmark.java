@@ -0,0 +1,52 @@
+package org.opentripplanner.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.client.model.TripPlan;
+import org.opentripplanner.client.serialization.TripPlanCodec;
+
+/**
+ * Storing a {@link TripPlan} in the binary format, to compare with {@link
+ * TripPlanDeserializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TripPlanCodecBenchmark {
+
+  @Param({"RECORDED", "MEDIUM", "LARGE"})
+  public PlanResponses.Size size;
+
+  private TripPlan plan;
+  private ByteBuffer encoded;
+
+  @Setup
+  public void setUp() {
+    plan = PlanResponses.tripPlan(size);
+    encoded = TripPlanCodec.encode(plan);
+  }
+
+  @Benchmark
+  public ByteBuffer encode() {
+    return TripPlanCodec.encode(plan);
+  }
+
+  @Benchmark
+  public TripPlan decode() {
+    return TripPlanCodec.decode(encoded.duplicate());
+  }
+}
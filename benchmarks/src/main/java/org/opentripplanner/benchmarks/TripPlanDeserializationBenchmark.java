@@ -0,0 +1,49 @@
+package org.opentripplanner.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentripplanner.client.model.TripPlan;
+import org.opentripplanner.client.serialization.GraphQLResponseReader;
+
+/** Reading a plan response into a {@link TripPlan}, as the client does after each request. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TripPlanDeserializationBenchmark {
+
+  private static final JavaType TRIP_PLAN =
+      TypeFactory.defaultInstance().constructType(TripPlan.class);
+
+  @Param({"RECORDED", "MEDIUM", "LARGE"})
+  public PlanResponses.Size size;
+
+  private final GraphQLResponseReader reader = PlanResponses.reader();
+  private byte[] json;
+
+  @Setup
+  public void setUp() {
+    json = PlanResponses.json(size);
+  }
+
+  @Benchmark
+  public TripPlan read() throws IOException {
+    return reader.read(new ByteArrayInputStream(json), "plan", TRIP_PLAN);
+  }
+}
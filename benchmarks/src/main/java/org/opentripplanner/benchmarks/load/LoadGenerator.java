@@ -0,0 +1,283 @@
+package org.opentripplanner.benchmarks.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.Timeout;
+import org.opentripplanner.benchmarks.PlanResponses;
+import org.opentripplanner.client.OtpApiClient;
+import org.opentripplanner.client.metrics.Outcome;
+import org.opentripplanner.client.model.TripPlan;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+import org.opentripplanner.stub.OtpStubServer;
+import org.opentripplanner.stub.Recording;
+
+/**
+ * Replays trip requests against an OTP deployment and reports throughput, latency percentiles and
+ * error rates, broken down by the mode sets of the requests. The requests are sent in the order of
+ * the file, starting over at the beginning when it is exhausted.
+ *
+ * <p>In the open model requests are started at a fixed rate regardless of how long earlier ones
+ * take, like independent users would. In the closed model a fixed number of workers each send the
+ * next request as soon as the previous one completed, so the rate adapts to the server.
+ *
+ * <pre>
+ * java -cp benchmarks.jar org.opentripplanner.benchmarks.load.LoadGenerator \
+ *     --url https://otp.example.com --zone Europe/Oslo --requests trips.jsonl \
+ *     --rate 50 --duration 60s
+ * </pre>
+ *
+ * With {@code --stub} the requests are sent to a local {@link OtpStubServer} instead, which answers
+ * every request with the same plan, or replays the responses recorded with {@code --record}, when
+ * given {@code --stub-recording}. Its behaviour can be changed with {@code --stub-latency}, {@code
+ * --stub-jitter}, {@code --stub-error-rate} and {@code --stub-bandwidth} (bytes/s).
+ */
+public final class LoadGenerator {
+
+  /** Plans a single trip. */
+  @FunctionalInterface
+  public interface Planner {
+    TripPlan plan(TripPlanParameters params) throws IOException;
+  }
+
+  private final Planner planner;
+  private final List<TripPlanParameters> requests;
+
+  public LoadGenerator(Planner planner, List<TripPlanParameters> requests) {
+    if (requests.isEmpty()) {
+      throw new IllegalArgumentException("requests must not be empty");
+    }
+    this.planner = planner;
+    this.requests = List.copyOf(requests);
+  }
+
+  /**
+   * Start {@code rate} requests per second for the given duration, on virtual threads, and wait for
+   * them to complete. If {@code maxInFlight} requests are outstanding, sending waits for one of
+   * them, but the response times are still measured from the scheduled start.
+   */
+  public LoadReport runOpen(double rate, Duration duration, int maxInFlight)
+      throws InterruptedException {
+    var report = new LoadReport();
+    var inFlight = new Semaphore(maxInFlight);
+    var interval = 1e9 / rate;
+    var durationNanos = duration.toNanos();
+    var start = System.nanoTime();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; ; i++) {
+        var scheduled = start + (long) (i * interval);
+        if (scheduled - start >= durationNanos) {
+          break;
+        }
+        parkUntil(scheduled);
+        inFlight.acquire();
+        var params = requests.get((int) (i % requests.size()));
+        executor.execute(
+            () -> {
+              try {
+                send(params, scheduled, report);
+              } finally {
+                inFlight.release();
+              }
+            });
+      }
+    }
+    report.elapsedNanos(System.nanoTime() - start);
+    return report;
+  }
+
+  /**
+   * Run {@code concurrency} workers that send one request after another for the given duration.
+   * Requests are never late in this model, so the response time equals the service time.
+   */
+  public LoadReport runClosed(int concurrency, Duration duration) {
+    var report = new LoadReport();
+    var start = System.nanoTime();
+    var deadline = start + duration.toNanos();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int w = 0; w < concurrency; w++) {
+        var worker = w;
+        executor.execute(
+            () -> {
+              for (int i = worker; System.nanoTime() - deadline < 0; i += concurrency) {
+                send(requests.get(i % requests.size()), System.nanoTime(), report);
+              }
+            });
+      }
+    }
+    report.elapsedNanos(System.nanoTime() - start);
+    return report;
+  }
+
+  private void send(TripPlanParameters params, long scheduled, LoadReport report) {
+    var sent = System.nanoTime();
+    Throwable error = null;
+    try {
+      planner.plan(params);
+    } catch (IOException | RuntimeException e) {
+      error = e;
+    }
+    var end = System.nanoTime();
+    report.record(params.modes(), end - scheduled, end - sent, Outcome.of(error));
+  }
+
+  private static void parkUntil(long nanoTime) {
+    long remaining;
+    while ((remaining = nanoTime - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    var options = parseArgs(args);
+    if (options.containsKey("help")
+        || !(options.containsKey("rate") ^ options.containsKey("concurrency"))) {
+      System.err.println(
+          """
+          Usage: LoadGenerator (--url <base uri> | --graphql-url <uri> | --stub)
+                               (--rate <requests/s> | --concurrency <workers>)
+                               [--requests <file.jsonl|file.csv>] [--duration 60s]
+                               [--zone Europe/Oslo] [--max-in-flight 1000] [--timeout 30s]
+                               [--record <file.jsonl>] [--stub-recording <file.jsonl>]
+                               [--stub-latency 20ms] [--stub-jitter 0ms]
+                               [--stub-error-rate 0] [--stub-bandwidth 0]""");
+      System.exit(2);
+    }
+    var requests =
+        options.containsKey("requests")
+            ? TripRequests.read(Path.of(options.get("requests")))
+            : TripRequests.example();
+    var duration = duration(options.getOrDefault("duration", "60s"));
+    var timeout = duration(options.getOrDefault("timeout", "30s"));
+    var connections =
+        Integer.parseInt(
+            options.getOrDefault("concurrency", options.getOrDefault("max-in-flight", "1000")));
+
+    OtpStubServer stub = null;
+    if (options.containsKey("stub")) {
+      stub = stub(options);
+      options.put("url", stub.baseUri());
+    } else if (options.containsKey("record")) {
+      var upstream =
+          options.containsKey("graphql-url")
+              ? options.remove("graphql-url")
+              : options.get("url").replaceAll("/$", "") + OtpStubServer.GRAPHQL_PATH;
+      stub = OtpStubServer.builder().withUpstream(URI.create(upstream)).start();
+      options.put("url", stub.baseUri());
+    }
+    var httpClient =
+        HttpClients.custom()
+            .setConnectionManager(
+                PoolingHttpClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(connections)
+                    .setMaxConnPerRoute(connections)
+                    .setDefaultConnectionConfig(
+                        ConnectionConfig.custom()
+                            .setConnectTimeout(Timeout.of(timeout))
+                            .setSocketTimeout(Timeout.of(timeout))
+                            .build())
+                    .build())
+            .setDefaultRequestConfig(
+                RequestConfig.custom().setResponseTimeout(Timeout.of(timeout)).build())
+            .disableContentCompression()
+            .build();
+    var zone = ZoneId.of(options.getOrDefault("zone", ZoneId.systemDefault().getId()));
+    var uris = OtpApiClient.builder();
+    var builder =
+        options.containsKey("graphql-url")
+            ? uris.graphQLUri(options.get("graphql-url"))
+            : uris.baseUri(options.get("url"));
+    try (httpClient;
+        var client = builder.timeZone(zone).httpClient(httpClient).build()) {
+      var generator = new LoadGenerator(client::plan, requests);
+      LoadReport report;
+      if (options.containsKey("rate")) {
+        var rate = Double.parseDouble(options.get("rate"));
+        System.out.printf("Sending %.1f requests/s for %s (open model)%n", rate, duration);
+        report =
+            generator.runOpen(
+                rate, duration, Integer.parseInt(options.getOrDefault("max-in-flight", "1000")));
+      } else {
+        var concurrency = Integer.parseInt(options.get("concurrency"));
+        System.out.printf(
+            "Sending requests from %d workers for %s (closed model)%n", concurrency, duration);
+        report = generator.runClosed(concurrency, duration);
+      }
+      report.print(System.out);
+    } finally {
+      if (stub != null) {
+        stub.close();
+        if (options.containsKey("record")) {
+          stub.recording().save(Path.of(options.get("record")));
+          System.out.printf(
+              "Recorded %d exchanges to %s%n", stub.recording().size(), options.get("record"));
+        }
+      }
+    }
+  }
+
+  private static OtpStubServer stub(Map<String, String> options) throws IOException {
+    var builder =
+        OtpStubServer.builder()
+            .withLatency(duration(options.getOrDefault("stub-latency", "20ms")))
+            .withJitter(duration(options.getOrDefault("stub-jitter", "0ms")))
+            .withErrorRate(Double.parseDouble(options.getOrDefault("stub-error-rate", "0")))
+            .withBandwidth(Long.parseLong(options.getOrDefault("stub-bandwidth", "0")));
+    if (options.containsKey("stub-recording")) {
+      // trips are replayed at other times than they were recorded
+      builder
+          .withRecording(Recording.load(Path.of(options.get("stub-recording"))))
+          .withIgnoredVariables("time", "date")
+          .withLenientMatching(true);
+    } else {
+      builder.withDefaultResponse(
+          new String(PlanResponses.json(PlanResponses.Size.RECORDED), StandardCharsets.UTF_8));
+    }
+    return builder.start();
+  }
+
+  private static Map<String, String> parseArgs(String[] args) {
+    var options = new HashMap<String, String>();
+    for (int i = 0; i < args.length; i++) {
+      if (!args[i].startsWith("--")) {
+        throw new IllegalArgumentException("Unexpected argument '%s'".formatted(args[i]));
+      }
+      var key = args[i].substring(2);
+      var flag = i + 1 == args.length || args[i + 1].startsWith("--");
+      options.put(key, flag ? "true" : args[++i]);
+    }
+    return options;
+  }
+
+  /** Parse a duration like {@code 500ms}, {@code 30s}, {@code 5m} or an ISO-8601 duration. */
+  static Duration duration(String value) {
+    var lower = value.toLowerCase(Locale.ROOT);
+    if (lower.startsWith("p")) {
+      return Duration.parse(value);
+    }
+    if (lower.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(lower.substring(0, lower.length() - 2)));
+    }
+    var amount = Long.parseLong(lower.substring(0, lower.length() - 1));
+    return switch (lower.charAt(lower.length() - 1)) {
+      case 's' -> Duration.ofSeconds(amount);
+      case 'm' -> Duration.ofMinutes(amount);
+      case 'h' -> Duration.ofHours(amount);
+      default -> throw new IllegalArgumentException("Invalid duration '%s'".formatted(value));
+    };
+  }
+}
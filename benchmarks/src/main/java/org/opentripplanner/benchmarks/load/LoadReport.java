@@ -0,0 +1,141 @@
+package org.opentripplanner.benchmarks.load;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+import org.opentripplanner.client.metrics.Histogram;
+import org.opentripplanner.client.metrics.Outcome;
+import org.opentripplanner.client.model.RequestMode;
+
+/**
+ * Latency histograms and outcome counters of a load test, for all requests and broken down by the
+ * set of modes of the requests.
+ *
+ * <p>Two latencies are recorded per request. The response time is measured from the time at which
+ * the request should have been sent according to the schedule, so that a server which stalls is not
+ * hidden by the load generator sending fewer requests meanwhile (coordinated omission). The service
+ * time is measured from the time at which the request was actually sent.
+ */
+public final class LoadReport {
+
+  static final String ALL = "all";
+
+  private final Map<String, Group> groups = new ConcurrentHashMap<>();
+  private volatile long elapsedNanos;
+
+  void record(Set<RequestMode> modes, long responseNanos, long serviceNanos, Outcome outcome) {
+    group(ALL).record(responseNanos, serviceNanos, outcome);
+    group(key(modes)).record(responseNanos, serviceNanos, outcome);
+  }
+
+  /** The statistics of all requests or, for a key such as {@code TRANSIT+WALK}, of a mode set. */
+  public Group group(String key) {
+    return groups.computeIfAbsent(key, k -> new Group());
+  }
+
+  void elapsedNanos(long nanos) {
+    this.elapsedNanos = nanos;
+  }
+
+  /** The time from the start of the test until all requests completed. */
+  public Duration elapsed() {
+    return Duration.ofNanos(elapsedNanos);
+  }
+
+  static String key(Set<RequestMode> modes) {
+    return modes.stream().map(Enum::name).sorted().collect(Collectors.joining("+"));
+  }
+
+  public void print(PrintStream out) {
+    var elapsedSeconds = elapsedNanos / 1e9;
+    out.printf(
+        "%-28s %9s %9s %8s %10s %10s %10s %10s %10s %10s %10s%n",
+        "modes",
+        "requests",
+        "req/s",
+        "errors",
+        "p50 ms",
+        "p90 ms",
+        "p99 ms",
+        "p99.9 ms",
+        "max ms",
+        "svc p50",
+        "svc p99");
+    var sorted = new TreeMap<>(groups);
+    var all = sorted.remove(ALL);
+    sorted.forEach((key, group) -> group.print(out, key, elapsedSeconds));
+    if (all != null) {
+      all.print(out, ALL, elapsedSeconds);
+      all.printErrors(out);
+    }
+  }
+
+  public static final class Group {
+
+    private final Histogram response = new Histogram();
+    private final Histogram service = new Histogram();
+    private final AtomicLongArray outcomes = new AtomicLongArray(Outcome.values().length);
+
+    private void record(long responseNanos, long serviceNanos, Outcome outcome) {
+      response.record(responseNanos);
+      service.record(serviceNanos);
+      outcomes.incrementAndGet(outcome.ordinal());
+    }
+
+    /** Response times in nanoseconds, corrected for coordinated omission. */
+    public Histogram responseTime() {
+      return response;
+    }
+
+    /** Service times in nanoseconds, from sending the request until its response was read. */
+    public Histogram serviceTime() {
+      return service;
+    }
+
+    public long count() {
+      return response.count();
+    }
+
+    public long count(Outcome outcome) {
+      return outcomes.get(outcome.ordinal());
+    }
+
+    public double errorRate() {
+      var count = count();
+      return count == 0 ? 0 : (double) (count - count(Outcome.SUCCESS)) / count;
+    }
+
+    private void print(PrintStream out, String key, double elapsedSeconds) {
+      out.printf(
+          "%-28s %9d %9.1f %7.2f%% %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+          key,
+          count(),
+          count() / elapsedSeconds,
+          errorRate() * 100,
+          millis(response, 50),
+          millis(response, 90),
+          millis(response, 99),
+          millis(response, 99.9),
+          response.max() / 1e6,
+          millis(service, 50),
+          millis(service, 99));
+    }
+
+    private void printErrors(PrintStream out) {
+      for (var outcome : Outcome.values()) {
+        if (outcome != Outcome.SUCCESS && count(outcome) > 0) {
+          out.printf("  %s: %d%n", outcome, count(outcome));
+        }
+      }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+      return histogram.valueAtPercentile(percentile) / 1e6;
+    }
+  }
+}
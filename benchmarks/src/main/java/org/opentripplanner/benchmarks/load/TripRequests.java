@@ -0,0 +1,184 @@
+package org.opentripplanner.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.opentripplanner.client.model.Coordinate;
+import org.opentripplanner.client.model.PlaceParameter;
+import org.opentripplanner.client.model.RequestMode;
+import org.opentripplanner.client.model.StopId;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+import org.opentripplanner.client.parameters.TripPlanParameters.SearchDirection;
+
+/**
+ * Reads trip requests from a file, either as JSON lines or as CSV with a header row.
+ *
+ * <p>A JSON line looks like this, where a place is either {@code {"lat": 59.9, "lon": 10.7}} or
+ * {@code {"stop": "RB:NSR:StopPlace:337"}} and everything but {@code from} and {@code to} is
+ * optional:
+ *
+ * <pre>{@code
+ * {"from": {"lat": 59.91, "lon": 10.75}, "to": {"lat": 59.95, "lon": 10.8},
+ *  "time": "2026-01-01T08:30", "modes": ["TRANSIT", "WALK"], "arriveBy": false,
+ *  "numItineraries": 5, "searchWindow": "PT2H", "wheelchair": false}
+ * }</pre>
+ *
+ * <p>CSV files have the columns {@code fromLat,fromLon,toLat,toLon} or {@code fromStop,toStop} and
+ * optionally {@code time}, {@code modes} separated by {@code |}, {@code arriveBy} and {@code
+ * numItineraries}.
+ */
+public final class TripRequests {
+
+  private static final Set<RequestMode> DEFAULT_MODES =
+      EnumSet.of(RequestMode.TRANSIT, RequestMode.WALK);
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private TripRequests() {}
+
+  public static List<TripPlanParameters> read(Path file) throws IOException {
+    try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return read(reader, file.toString().endsWith(".csv"));
+    }
+  }
+
+  /** Read the example requests which are bundled with the load generator. */
+  public static List<TripPlanParameters> example() throws IOException {
+    var in =
+        Objects.requireNonNull(
+            TripRequests.class.getResourceAsStream("/load/example-requests.jsonl"));
+    try (var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      return read(reader, false);
+    }
+  }
+
+  static List<TripPlanParameters> read(BufferedReader reader, boolean csv) throws IOException {
+    var requests = new ArrayList<TripPlanParameters>();
+    String[] header = null;
+    String line;
+    int number = 0;
+    while ((line = reader.readLine()) != null) {
+      number++;
+      if (line.isBlank() || line.startsWith("#")) {
+        continue;
+      }
+      try {
+        if (!csv) {
+          requests.add(fromJson(MAPPER.readTree(line)));
+        } else if (header == null) {
+          header = line.trim().split("\\s*,\\s*");
+        } else {
+          requests.add(fromCsv(header, line.trim().split("\\s*,\\s*", -1)));
+        }
+      } catch (IOException | RuntimeException e) {
+        throw new IOException(
+            "Invalid trip request on line %d: %s".formatted(number, e.getMessage()), e);
+      }
+    }
+    if (requests.isEmpty()) {
+      throw new IOException("No trip requests found");
+    }
+    return requests;
+  }
+
+  private static TripPlanParameters fromJson(JsonNode json) {
+    var builder =
+        TripPlanParameters.builder()
+            .withFrom(place(json.path("from")))
+            .withTo(place(json.path("to")))
+            .withTime(time(json.path("time").asText(null)))
+            .withModes(modes(json.path("modes")));
+    if (json.path("arriveBy").asBoolean(false)) {
+      builder.withSearchDirection(SearchDirection.ARRIVE_BY);
+    }
+    if (json.has("numItineraries")) {
+      builder.withNumberOfItineraries(json.path("numItineraries").asInt());
+    }
+    if (json.has("searchWindow")) {
+      builder.withSearchWindow(Duration.parse(json.path("searchWindow").asText()));
+    }
+    if (json.has("wheelchair")) {
+      builder.withWheelchair(json.path("wheelchair").asBoolean());
+    }
+    return builder.build();
+  }
+
+  private static TripPlanParameters fromCsv(String[] header, String[] values) {
+    Map<String, String> row = new HashMap<>();
+    for (int i = 0; i < header.length && i < values.length; i++) {
+      if (!values[i].isEmpty()) {
+        row.put(header[i], values[i]);
+      }
+    }
+    var builder =
+        TripPlanParameters.builder()
+            .withFrom(place(row, "from"))
+            .withTo(place(row, "to"))
+            .withTime(time(row.get("time")))
+            .withModes(
+                row.containsKey("modes")
+                    ? Arrays.stream(row.get("modes").split("\\|"))
+                        .map(m -> RequestMode.valueOf(m.trim()))
+                        .collect(Collectors.toSet())
+                    : DEFAULT_MODES);
+    if (Boolean.parseBoolean(row.get("arriveBy"))) {
+      builder.withSearchDirection(SearchDirection.ARRIVE_BY);
+    }
+    if (row.containsKey("numItineraries")) {
+      builder.withNumberOfItineraries(Integer.parseInt(row.get("numItineraries")));
+    }
+    return builder.build();
+  }
+
+  private static PlaceParameter place(JsonNode json) {
+    if (json.has("stop")) {
+      return new StopId(json.path("stop").asText());
+    }
+    if (!json.has("lat") || !json.has("lon")) {
+      throw new IllegalArgumentException("place needs 'lat' and 'lon' or 'stop'");
+    }
+    return new Coordinate(json.path("lat").asDouble(), json.path("lon").asDouble());
+  }
+
+  private static PlaceParameter place(Map<String, String> row, String prefix) {
+    if (row.containsKey(prefix + "Stop")) {
+      return new StopId(row.get(prefix + "Stop"));
+    }
+    var lat = row.get(prefix + "Lat");
+    var lon = row.get(prefix + "Lon");
+    if (lat == null || lon == null) {
+      throw new IllegalArgumentException(
+          "needs columns '%1$sLat' and '%1$sLon' or '%1$sStop'".formatted(prefix));
+    }
+    return new Coordinate(Double.parseDouble(lat), Double.parseDouble(lon));
+  }
+
+  private static LocalDateTime time(String time) {
+    return time == null ? LocalDateTime.now() : LocalDateTime.parse(time);
+  }
+
+  private static Set<RequestMode> modes(JsonNode modes) {
+    if (!modes.isArray() || modes.isEmpty()) {
+      return DEFAULT_MODES;
+    }
+    var result = EnumSet.noneOf(RequestMode.class);
+    modes.forEach(m -> result.add(RequestMode.valueOf(m.asText())));
+    return result;
+  }
+}
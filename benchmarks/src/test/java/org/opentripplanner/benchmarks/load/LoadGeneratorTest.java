@@ -0,0 +1,74 @@
+package org.opentripplanner.benchmarks.load;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.benchmarks.PlanResponses;
+import org.opentripplanner.client.OtpApiClient;
+import org.opentripplanner.client.metrics.Outcome;
+import org.opentripplanner.client.model.Coordinate;
+import org.opentripplanner.client.model.RequestMode;
+import org.opentripplanner.client.model.StopId;
+import org.opentripplanner.stub.OtpStubServer;
+
+class LoadGeneratorTest {
+
+  @Test
+  void readCsv() throws IOException {
+    var csv =
+        """
+        fromLat,fromLon,toLat,toLon,fromStop,modes,time,arriveBy
+        59.91,10.75,59.95,10.8,,TRANSIT|WALK,2026-01-01T08:30,true
+        ,,59.95,10.8,F:1,BICYCLE,,
+        """;
+    var requests = TripRequests.read(new BufferedReader(new StringReader(csv)), true);
+
+    assertThat(requests).hasSize(2);
+    assertThat(requests.get(0).fromPlace()).isEqualTo(new Coordinate(59.91, 10.75));
+    assertThat(requests.get(0).modes()).containsExactly(RequestMode.TRANSIT, RequestMode.WALK);
+    assertThat(requests.get(0).searchDirection().isArriveBy()).isTrue();
+    assertThat(requests.get(1).fromPlace()).isEqualTo(new StopId("F:1"));
+    assertThat(requests.get(1).modes()).containsExactly(RequestMode.BICYCLE);
+  }
+
+  @Test
+  void openModelAgainstStub() throws Exception {
+    try (var stub =
+            OtpStubServer.builder()
+                .withDefaultResponse(
+                    new String(
+                        PlanResponses.json(PlanResponses.Size.RECORDED), StandardCharsets.UTF_8))
+                .withLatency(Duration.ofMillis(5))
+                .start();
+        var client =
+            OtpApiClient.builder()
+                .baseUri(stub.baseUri())
+                .timeZone(ZoneId.of("Europe/Oslo"))
+                .build()) {
+      var report =
+          new LoadGenerator(client::plan, TripRequests.example())
+              .runOpen(50, Duration.ofSeconds(1), 100);
+
+      var all = report.group(LoadReport.ALL);
+      assertThat(all.count()).isEqualTo(50);
+      assertThat(all.count(Outcome.SUCCESS)).isEqualTo(50);
+      assertThat(all.responseTime().valueAtPercentile(50)).isAtLeast(5_000_000);
+      assertThat(report.group("BICYCLE").count()).isGreaterThan(0);
+      assertThat(report.elapsed()).isAtLeast(Duration.ofMillis(980));
+    }
+  }
+
+  @Test
+  void parseDuration() {
+    assertThat(LoadGenerator.duration("250ms")).isEqualTo(Duration.ofMillis(250));
+    assertThat(LoadGenerator.duration("30s")).isEqualTo(Duration.ofSeconds(30));
+    assertThat(LoadGenerator.duration("2m")).isEqualTo(Duration.ofMinutes(2));
+    assertThat(LoadGenerator.duration("PT1H")).isEqualTo(Duration.ofHours(1));
+  }
+}
@@ -0,0 +1,93 @@
+package org.opentripplanner.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import org.opentripplanner.client.model.TripPlan;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+
+/**
+ * Fans out many plan requests on virtual threads while keeping at most a fixed number of them in
+ * flight. A failing request is reported as a {@link PlanOutcome} and doesn't abort the run. An
+ * {@link Error} is wrapped in an {@link ExecutionException}, because the outcome holds exceptions.
+ */
+final class BulkPlanner {
+
+  @FunctionalInterface
+  interface PlanFunction {
+    TripPlan plan(TripPlanParameters parameters) throws Exception;
+  }
+
+  private final PlanFunction planFunction;
+  private final int maxInFlight;
+
+  BulkPlanner(PlanFunction planFunction, int maxInFlight) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be at least 1 but was " + maxInFlight);
+    }
+    this.planFunction = planFunction;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /** Plan all requests and return the outcomes in the order of the input. */
+  List<PlanOutcome> planAll(Collection<TripPlanParameters> requests) throws InterruptedException {
+    var outcomes = new PlanOutcome[requests.size()];
+    planAll(requests, outcome -> outcomes[outcome.index()] = outcome);
+    return Arrays.asList(outcomes);
+  }
+
+  /**
+   * Plan all requests and pass each outcome to {@code onComplete} as soon as it is available. The
+   * consumer is always called on the calling thread, so it doesn't need to be thread-safe.
+   */
+  void planAll(Collection<TripPlanParameters> requests, Consumer<PlanOutcome> onComplete)
+      throws InterruptedException {
+    var params = new ArrayList<>(requests);
+    var permits = new Semaphore(maxInFlight);
+    BlockingQueue<PlanOutcome> completed = new LinkedBlockingQueue<>();
+    var executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      int delivered = 0;
+      for (int i = 0; i < params.size(); i++) {
+        // acquiring on the submitting thread also bounds the number of live virtual threads
+        permits.acquire();
+        final int index = i;
+        final var p = params.get(i);
+        executor.execute(
+            () -> {
+              PlanOutcome outcome;
+              try {
+                outcome = PlanOutcome.success(index, p, planFunction.plan(p));
+              } catch (Exception e) {
+                outcome = PlanOutcome.failure(index, p, e);
+              } catch (Throwable e) {
+                // every request must deliver an outcome, otherwise the caller waits forever
+                outcome = PlanOutcome.failure(index, p, new ExecutionException(e));
+              } finally {
+                permits.release();
+              }
+              completed.add(outcome);
+            });
+        for (var outcome = completed.poll(); outcome != null; outcome = completed.poll()) {
+          onComplete.accept(outcome);
+          delivered++;
+        }
+      }
+      for (; delivered < params.size(); delivered++) {
+        onComplete.accept(completed.take());
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      throw e;
+    } finally {
+      executor.close();
+    }
+  }
+}
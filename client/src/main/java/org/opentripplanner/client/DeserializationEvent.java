@@ -0,0 +1,46 @@
+package org.opentripplanner.client;
+
+import jakarta.annotation.Nullable;
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event of reading a response body into model objects. */
+@Name("org.opentripplanner.client.Deserialization")
+@Label("OTP Response Deserialization")
+@Category({"OpenTripPlanner", "Client"})
+@Description("Parsing and mapping of a response of an OTP endpoint")
+@StackTrace(false)
+final class DeserializationEvent extends jdk.jfr.Event {
+
+  private static final EventType TYPE = EventType.getEventType(DeserializationEvent.class);
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Endpoint")
+  String endpoint;
+
+  /** Begin the event when the response body starts to be read, or return null if disabled. */
+  @Nullable
+  static DeserializationEvent begin(Operation operation, URI endpoint) {
+    if (!TYPE.isEnabled()) {
+      return null;
+    }
+    var event = new DeserializationEvent();
+    event.operation = operation.methodName();
+    event.endpoint = endpoint.toString();
+    event.begin();
+    return event;
+  }
+
+  static void commit(@Nullable DeserializationEvent event) {
+    if (event != null) {
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package org.opentripplanner.client;
+
+import jakarta.annotation.Nullable;
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** JFR event of a single HTTP exchange with an endpoint, of which a query may make several. */
+@Name("org.opentripplanner.client.Exchange")
+@Label("OTP HTTP Exchange")
+@Category({"OpenTripPlanner", "Client"})
+@Description("An HTTP request to an OTP endpoint, including reading the response")
+@StackTrace(false)
+final class ExchangeEvent extends jdk.jfr.Event {
+
+  private static final EventType TYPE = EventType.getEventType(ExchangeEvent.class);
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Endpoint")
+  String endpoint;
+
+  @Label("Status Code")
+  int statusCode;
+
+  @Label("Response Size")
+  @Description("The size of the response body before decompression")
+  @DataAmount
+  long responseBytes;
+
+  @Label("Network Time")
+  @Description("The time until the response arrived, the rest of the event is deserialization")
+  @Timespan
+  long networkDuration;
+
+  /** Begin the event of one exchange with the endpoint, or return null if disabled. */
+  @Nullable
+  static ExchangeEvent begin(Operation operation, URI endpoint) {
+    if (!TYPE.isEnabled()) {
+      return null;
+    }
+    var event = new ExchangeEvent();
+    event.operation = operation.methodName();
+    event.endpoint = endpoint.toString();
+    event.begin();
+    return event;
+  }
+
+  static void response(@Nullable ExchangeEvent event, int statusCode, long networkNanos) {
+    if (event != null) {
+      event.statusCode = statusCode;
+      event.networkDuration = networkNanos;
+    }
+  }
+
+  static void responseBytes(@Nullable ExchangeEvent event, long bytes) {
+    if (event != null) {
+      event.responseBytes = bytes;
+    }
+  }
+
+  static void commit(@Nullable ExchangeEvent event) {
+    if (event != null) {
+      event.commit();
+    }
+  }
+}
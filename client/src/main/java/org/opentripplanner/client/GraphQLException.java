@@ -0,0 +1,20 @@
+package org.opentripplanner.client;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Thrown when the GraphQL API returns errors instead of the requested data. */
+public class GraphQLException extends IOException {
+
+  private final List<String> errorMessages;
+
+  public GraphQLException(String message, List<String> errorMessages) {
+    super(message);
+    this.errorMessages = List.copyOf(errorMessages);
+  }
+
+  /** The {@code message} of each entry in the {@code errors} array of the response. */
+  public List<String> errorMessages() {
+    return errorMessages;
+  }
+}
@@ -0,0 +1,68 @@
+package org.opentripplanner.client;
+
+import jakarta.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hc.client5.http.entity.DeflateInputStream;
+
+/** Compression of request and response bodies. */
+final class HttpCompression {
+
+  /** The encodings that {@link #decode(String, InputStream)} understands. */
+  static final String ACCEPT_ENCODING = "gzip, deflate";
+
+  static final String GZIP = "gzip";
+
+  /** The first byte of the gzip header. */
+  private static final int GZIP_MAGIC = 0x1f;
+
+  private HttpCompression() {}
+
+  /**
+   * Wrap the body in a decompressing stream according to its {@code Content-Encoding}, so that it
+   * is decompressed while it is being parsed.
+   *
+   * <p>Some HTTP clients decompress the body themselves but keep the header, so a body that is
+   * evidently not compressed is returned as is.
+   */
+  static InputStream decode(@Nullable String contentEncoding, InputStream body) throws IOException {
+    if (contentEncoding == null) {
+      return body;
+    }
+    return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+      case "", "identity" -> body;
+      case "gzip", "x-gzip" -> {
+        var in = new BufferedInputStream(body);
+        yield startsWith(in, GZIP_MAGIC) ? new GZIPInputStream(in) : in;
+      }
+      case "deflate" -> {
+        var in = new BufferedInputStream(body);
+        // a JSON object rather than a zlib or raw deflate stream
+        yield startsWith(in, '{') ? in : new DeflateInputStream(in);
+      }
+      default ->
+          throw new IOException("Unsupported Content-Encoding '%s'".formatted(contentEncoding));
+    };
+  }
+
+  private static boolean startsWith(BufferedInputStream in, int expected) throws IOException {
+    in.mark(1);
+    var first = in.read();
+    in.reset();
+    return first == expected;
+  }
+
+  static byte[] gzip(String body) throws IOException {
+    var bytes = new ByteArrayOutputStream(body.length() / 4);
+    try (var out = new GZIPOutputStream(bytes)) {
+      out.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,18 @@
+package org.opentripplanner.client;
+
+import java.io.IOException;
+
+/** Thrown when the server answers with an HTTP status other than 200. */
+public class HttpStatusException extends IOException {
+
+  private final int statusCode;
+
+  public HttpStatusException(String message, int statusCode) {
+    super(message);
+    this.statusCode = statusCode;
+  }
+
+  public int statusCode() {
+    return statusCode;
+  }
+}
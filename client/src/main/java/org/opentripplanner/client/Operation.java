@@ -0,0 +1,33 @@
+package org.opentripplanner.client;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/** The queries which {@link OtpApiClient} sends, for rate limiting and metrics. */
+public enum Operation {
+  PLAN("plan"),
+  PLAN_BATCH("planBatch"),
+  ROUTES("routes"),
+  VEHICLE_RENTAL_STATIONS("vehicleRentalStations"),
+  PATTERNS("patterns"),
+  AGENCIES("agencies"),
+  STOP("stop"),
+  STOP_SEARCH("stopSearch"),
+  ALERTS("alerts");
+
+  private final String name;
+
+  Operation(String name) {
+    this.name = name;
+  }
+
+  /** The name of the method of {@link OtpApiClient}, for use in logs and metric tags. */
+  public String methodName() {
+    return name;
+  }
+
+  /** The operations which fetch reference data rather than plan trips. */
+  public static Set<Operation> referenceData() {
+    return EnumSet.complementOf(EnumSet.of(PLAN, PLAN_BATCH));
+  }
+}
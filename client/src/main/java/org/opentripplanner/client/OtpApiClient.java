@@ -1,23 +1,47 @@
 package org.opentripplanner.client;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.CountingInputStream;
 import com.kobylynskyi.graphql.codegen.model.graphql.GraphQLRequest;
+import jakarta.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.io.CloseMode;
 import org.opentripplanner.api.types.AgencyResponseProjection;
 import org.opentripplanner.api.types.DefaultFareProductResponseProjection;
 import org.opentripplanner.api.types.FareMediumResponseProjection;
@@ -27,7 +51,6 @@ import org.opentripplanner.api.types.GeometryResponseProjection;
 import org.opentripplanner.api.types.ItineraryResponseProjection;
 import org.opentripplanner.api.types.LegResponseProjection;
 import org.opentripplanner.api.types.PlaceResponseProjection;
-import org.opentripplanner.api.types.PlanQueryRequest;
 import org.opentripplanner.api.types.PlanResponseProjection;
 import org.opentripplanner.api.types.RiderCategoryResponseProjection;
 import org.opentripplanner.api.types.Route;
@@ -35,21 +58,51 @@ import org.opentripplanner.api.types.RouteResponseProjection;
 import org.opentripplanner.api.types.RoutesQueryRequest;
 import org.opentripplanner.api.types.StopResponseProjection;
 import org.opentripplanner.api.types.TripResponseProjection;
+import org.opentripplanner.client.balancing.Endpoint;
+import org.opentripplanner.client.balancing.LoadBalancer;
+import org.opentripplanner.client.balancing.LoadBalancingPolicy;
+import org.opentripplanner.client.cache.PlanCache;
+import org.opentripplanner.client.metrics.InMemoryMetrics;
+import org.opentripplanner.client.metrics.MetricsListener;
+import org.opentripplanner.client.metrics.Outcome;
+import org.opentripplanner.client.metrics.RequestSample;
 import org.opentripplanner.client.model.Agency;
 import org.opentripplanner.client.model.Alert;
 import org.opentripplanner.client.model.Pattern;
-import org.opentripplanner.client.model.RequestMode;
 import org.opentripplanner.client.model.Stop;
 import org.opentripplanner.client.model.TripPlan;
 import org.opentripplanner.client.model.VehicleRentalStation;
-import org.opentripplanner.client.parameters.InputTriangle;
+import org.opentripplanner.client.parameters.ResponseProfile;
+import org.opentripplanner.client.parameters.ResponseProfile.LegField;
 import org.opentripplanner.client.parameters.TripPlanParameters;
 import org.opentripplanner.client.query.GraphQLQueries;
+import org.opentripplanner.client.query.PlanQuery;
+import org.opentripplanner.client.query.PreparedQuery;
+import org.opentripplanner.client.resilience.CircuitBreaker;
+import org.opentripplanner.client.resilience.CircuitBreakerPolicy;
+import org.opentripplanner.client.resilience.ConcurrencyLimitPolicy;
+import org.opentripplanner.client.resilience.ConcurrencyLimiter;
+import org.opentripplanner.client.resilience.EndpointGuard;
+import org.opentripplanner.client.resilience.Futures;
+import org.opentripplanner.client.resilience.RateLimits;
+import org.opentripplanner.client.resilience.Retrier;
+import org.opentripplanner.client.resilience.RetryPolicy;
+import org.opentripplanner.client.resilience.RetryStats;
+import org.opentripplanner.client.serialization.EntityInterner;
+import org.opentripplanner.client.serialization.GraphQLResponseReader;
 import org.opentripplanner.client.serialization.ObjectMappers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class OtpApiClient {
+/**
+ * Client for the OTP GTFS GraphQL API.
+ *
+ * <p>Every query is available in a blocking variant, which uses the classic {@link
+ * CloseableHttpClient}, and a non-blocking variant with the suffix {@code Async}, which uses a
+ * {@link CloseableHttpAsyncClient} and returns a {@link CompletableFuture}. Both variants share the
+ * same request building and deserialization code.
+ */
+public class OtpApiClient implements Closeable {
 
   public static final AgencyResponseProjection AGENCY_PROJECTION =
       new AgencyResponseProjection().gtfsId().name();
@@ -65,6 +118,7 @@ public class OtpApiClient {
           .typename();
   private static final Logger LOG = LoggerFactory.getLogger(OtpApiClient.class);
   private static final String DEFAULT_GRAPHQL_PATH = "/otp/gtfs/v1";
+  private static final int MAX_INTERNED_ENTITIES = 100_000;
   public static final StopResponseProjection STOP_PROJECTION =
       new StopResponseProjection().gtfsId().name().code();
   public static final PlaceResponseProjection PLACE_PROJECTION =
@@ -76,9 +130,64 @@ public class OtpApiClient {
           .lat()
           .lon();
 
+  /**
+   * The plan query is compiled once per response profile, each request only sends its variables.
+   */
+  private static final Map<ResponseProfile, PreparedQuery> PLAN_QUERIES =
+      new ConcurrentHashMap<>(
+          Map.of(ResponseProfile.FULL, PlanQuery.compile(planProjection(ResponseProfile.FULL))));
+
+  /**
+   * Batched plan queries, compiled on first use for each response profile and batch size. Only the
+   * most recently used ones are kept, since each batch size needs its own document.
+   */
+  private static final Map<PlanBatchKey, PreparedQuery> PLAN_BATCH_QUERIES =
+      CacheBuilder.newBuilder().maximumSize(64).<PlanBatchKey, PreparedQuery>build().asMap();
+
+  private static final PreparedQuery ROUTES_QUERY =
+      PreparedQuery.of(
+          new GraphQLRequest(new RoutesQueryRequest(), ROUTE_PROJECTION).toQueryString());
+  private static final PreparedQuery VEHICLE_RENTAL_STATIONS_QUERY =
+      PreparedQuery.of(GraphQLQueries.vehicleRentalStations());
+  private static final PreparedQuery PATTERNS_QUERY = PreparedQuery.of(GraphQLQueries.patterns());
+  private static final PreparedQuery AGENCIES_QUERY = PreparedQuery.of(GraphQLQueries.agencies());
+  private static final PreparedQuery STOP_QUERY = PreparedQuery.of(GraphQLQueries.stop());
+  private static final PreparedQuery STOPS_QUERY = PreparedQuery.of(GraphQLQueries.stops());
+  private static final PreparedQuery ALERTS_QUERY = PreparedQuery.of(GraphQLQueries.alerts());
+
+  /** The error message with which servers reject a persisted query hash they don't know. */
+  private static final String PERSISTED_QUERY_NOT_FOUND = "PersistedQueryNotFound";
+
+  /** The error message with which servers reject persisted queries altogether. */
+  private static final String PERSISTED_QUERY_NOT_SUPPORTED = "PersistedQueryNotSupported";
+
+  private static final String HEALTH_CHECK_BODY = "{\"query\":\"{ __typename }\"}";
+
+  private static final JavaType TRIP_PLAN =
+      TypeFactory.defaultInstance().constructType(TripPlan.class);
+  private static final JavaType STOP = TypeFactory.defaultInstance().constructType(Stop.class);
+  private static final JavaType ROUTE_LIST = listType(Route.class);
+  private static final JavaType VEHICLE_RENTAL_STATION_LIST = listType(VehicleRentalStation.class);
+  private static final JavaType PATTERN_LIST = listType(Pattern.class);
+  private static final JavaType AGENCY_LIST = listType(Agency.class);
+  private static final JavaType STOP_LIST = listType(Stop.class);
+  private static final JavaType ALERT_LIST = listType(Alert.class);
+
   private final CloseableHttpClient httpClient;
-  private final URI graphQlUri;
+  private final boolean ownsHttpClient;
+  @Nullable private final CloseableHttpAsyncClient customAsyncHttpClient;
+  @Nullable private volatile CloseableHttpAsyncClient asyncHttpClient;
+  private final LoadBalancer loadBalancer;
   private final ObjectMapper mapper;
+  private final GraphQLResponseReader responseReader;
+  private volatile boolean persistedQueries;
+  @Nullable private final PlanCache planCache;
+  @Nullable private final SingleFlight singleFlight;
+  private final boolean compressResponses;
+  private final int requestCompressionThreshold;
+  private final Retrier retrier;
+  private final RateLimits rateLimits;
+  @Nullable private final MetricsListener metrics;
 
   /**
    * Create a new client instance. For additional customization options, use the Builder API.
@@ -91,12 +200,33 @@ public class OtpApiClient {
   }
 
   private OtpApiClient(final BuilderImpl b) {
-    final var uri = Objects.requireNonNull(b.uri);
+    final var uris = Objects.requireNonNull(b.uris);
     final var client =
-        Objects.requireNonNullElseGet(b.httpClient, () -> HttpClientBuilder.create().build());
+        Objects.requireNonNullElseGet(
+            b.httpClient,
+            // responses are decompressed by this class for both the classic and the async client
+            () -> HttpClientBuilder.create().disableContentCompression().build());
     this.mapper = ObjectMappers.withTimezone(b.zoneId);
-    this.graphQlUri = URI.create(uri);
+    this.responseReader =
+        new GraphQLResponseReader(
+            mapper, b.internReferenceData ? new EntityInterner(MAX_INTERNED_ENTITIES) : null);
     this.httpClient = client;
+    this.ownsHttpClient = b.httpClient == null;
+    this.customAsyncHttpClient = b.asyncHttpClient;
+    this.persistedQueries = b.persistedQueries;
+    this.planCache = b.planCache;
+    this.singleFlight = b.coalesceRequests ? new SingleFlight() : null;
+    this.compressResponses = b.compressResponses;
+    this.requestCompressionThreshold = b.requestCompressionThreshold;
+    this.retrier = new Retrier(b.retryPolicy);
+    this.rateLimits = b.rateLimits;
+    this.metrics = b.metrics;
+    this.loadBalancer =
+        new LoadBalancer(
+            uris.stream().map(URI::create).toList(),
+            b.loadBalancingPolicy,
+            () -> new EndpointGuard(b.concurrencyLimitPolicy, b.circuitBreakerPolicy));
+    this.loadBalancer.startHealthChecks(this::healthCheck);
   }
 
   /**
@@ -106,64 +236,177 @@ public class OtpApiClient {
    *     docs</a>
    */
   public TripPlan plan(TripPlanParameters req) throws IOException {
-    var r = new PlanQueryRequest();
-    r.setFromPlace(req.fromPlace().toPlaceString());
-    r.setToPlace(req.toPlace().toPlaceString());
-    r.setTransportModes(req.modes().stream().map(RequestMode::toTransportMode).toList());
-    r.setNumItineraries(req.numItineraries());
-    r.setTime(req.time().toLocalTime().truncatedTo(ChronoUnit.SECONDS).toString());
-    r.setDate(req.time().toLocalDate().toString());
-    r.setArriveBy(req.searchDirection().isArriveBy());
-    r.setSearchWindow(req.searchWindow().map(Duration::toSeconds).orElse(null));
-    r.setWalkReluctance(req.walkReluctance().orElse(null));
-    r.setCarReluctance(req.carReluctance().orElse(null));
-    r.setBikeReluctance(req.bikeReluctance().orElse(null));
-    r.setBikeWalkingReluctance(req.bikeWalkingReluctance().orElse(null));
-    r.setWheelchair(req.wheelchair());
-    // TODO: implement banning
-    r.setOptimize(req.optimize());
-    r.setTriangle(req.triangle().map(InputTriangle::toGenegerated).orElse(null));
-    r.setPageCursor(req.pageCursor().orElse(null));
-
-    final LegResponseProjection legProjection =
-        new LegResponseProjection()
-            .accessibilityScore()
-            .mode()
-            .startTime()
-            .endTime()
-            .headsign()
-            .from(PLACE_PROJECTION)
-            .to(PLACE_PROJECTION)
-            .intermediatePlaces(PLACE_PROJECTION)
-            .agency(AGENCY_PROJECTION)
-            .trip(new TripResponseProjection().gtfsId().tripHeadsign())
-            .route(ROUTE_PROJECTION)
-            .legGeometry(new GeometryResponseProjection().points().length())
-            .interlineWithPreviousLeg()
-            .duration()
-            .fareProducts(
-                new FareProductUseResponseProjection()
-                    .product(
-                        new FareProductResponseProjection()
-                            .name()
-                            .riderCategory(new RiderCategoryResponseProjection().all$())
-                            .medium(new FareMediumResponseProjection().all$())
-                            .onDefaultFareProduct(
-                                new DefaultFareProductResponseProjection().all$())));
-    var tripPlanProjection =
-        new PlanResponseProjection()
-            .itineraries(
-                new ItineraryResponseProjection()
-                    .accessibilityScore()
-                    .duration()
-                    .legs(legProjection))
-            .nextPageCursor()
-            .previousPageCursor();
-
-    var graphQLRequest = new GraphQLRequest(r, tripPlanProjection);
-
-    final var jsonNode = sendRequest(graphQLRequest);
-    return deserialize(jsonNode, "/data/plan", TripPlan.class);
+    if (planCache != null) {
+      return planCache.get(req, () -> fetchPlan(req));
+    }
+    return fetchPlan(req);
+  }
+
+  private TripPlan fetchPlan(TripPlanParameters req) throws IOException {
+    return sendQuery(Operation.PLAN, planQuery(req), PlanQuery.variables(req), "plan", TRIP_PLAN);
+  }
+
+  /**
+   * Non-blocking variant of {@link #plan(TripPlanParameters)}.
+   *
+   * @return a future that completes with the trip plan or exceptionally with an {@link IOException}
+   */
+  public CompletableFuture<TripPlan> planAsync(TripPlanParameters req) {
+    if (planCache == null) {
+      return sendQueryAsync(
+          Operation.PLAN, planQuery(req), PlanQuery.variables(req), "plan", TRIP_PLAN);
+    }
+    var cached = planCache.getIfPresent(req);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(cached.get());
+    }
+    return this.<TripPlan>sendQueryAsync(
+            Operation.PLAN, planQuery(req), PlanQuery.variables(req), "plan", TRIP_PLAN)
+        .thenApply(
+            plan -> {
+              planCache.put(req, plan);
+              return plan;
+            });
+  }
+
+  private static PreparedQuery planQuery(TripPlanParameters req) {
+    return PLAN_QUERIES.computeIfAbsent(
+        req.responseProfile(), p -> PlanQuery.compile(planProjection(p)));
+  }
+
+  /** The cache of trip plans, if one was configured via {@link Builder#planCache(PlanCache)}. */
+  public Optional<PlanCache> planCache() {
+    return Optional.ofNullable(planCache);
+  }
+
+  /**
+   * Plan several trips in a single HTTP request. The plans are combined into one GraphQL document
+   * with an aliased {@code plan} field per request, so that for example the results for different
+   * sets of modes can be fetched in one round trip. Batches bypass the plan cache.
+   *
+   * @return the trip plans in the same order as {@code requests}
+   * @throws IllegalArgumentException if the requests don't all have the same {@link
+   *     ResponseProfile}
+   */
+  public List<TripPlan> planBatch(List<TripPlanParameters> requests) throws IOException {
+    if (requests.isEmpty()) {
+      return List.of();
+    }
+    return sendQuery(
+        Operation.PLAN_BATCH,
+        planBatchQuery(requests),
+        PlanQuery.batchVariables(requests),
+        batchFields(requests));
+  }
+
+  /**
+   * Non-blocking variant of {@link #planBatch(List)}. If the requests don't all have the same
+   * {@link ResponseProfile}, the returned future fails with an {@link IllegalArgumentException}.
+   */
+  public CompletableFuture<List<TripPlan>> planBatchAsync(List<TripPlanParameters> requests) {
+    if (requests.isEmpty()) {
+      return CompletableFuture.completedFuture(List.of());
+    }
+    PreparedQuery query;
+    try {
+      query = planBatchQuery(requests);
+    } catch (IllegalArgumentException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return sendQueryAsync(
+        Operation.PLAN_BATCH, query, PlanQuery.batchVariables(requests), batchFields(requests));
+  }
+
+  private static PreparedQuery planBatchQuery(List<TripPlanParameters> requests) {
+    var profile = requests.getFirst().responseProfile();
+    if (requests.stream().anyMatch(r -> !r.responseProfile().equals(profile))) {
+      throw new IllegalArgumentException("All requests of a batch must have the same profile");
+    }
+    return PLAN_BATCH_QUERIES.computeIfAbsent(
+        new PlanBatchKey(profile, requests.size()),
+        k -> PlanQuery.compileBatch(planProjection(k.profile()), k.size()));
+  }
+
+  private record PlanBatchKey(ResponseProfile profile, int size) {}
+
+  private BodyReader<List<TripPlan>> batchFields(List<TripPlanParameters> requests) {
+    var aliases = IntStream.range(0, requests.size()).mapToObj(PlanQuery::alias).toList();
+    return (body, attempt) -> responseReader.readAll(body, aliases, TRIP_PLAN, attempt);
+  }
+
+  /**
+   * Plan many trips concurrently on virtual threads, with at most {@code maxInFlight} requests in
+   * flight at any time. A failing request doesn't abort the others but is reported in its {@link
+   * PlanOutcome}.
+   *
+   * <p>Note that the HTTP client's connection pool also limits the concurrency: the default client
+   * only opens 5 connections per host, so configure a larger pool via {@link
+   * Builder#httpClient(CloseableHttpClient)} for higher values of {@code maxInFlight}.
+   *
+   * @return the outcomes in the same order as {@code requests}
+   */
+  public List<PlanOutcome> planAll(Collection<TripPlanParameters> requests, int maxInFlight)
+      throws InterruptedException {
+    return new BulkPlanner(this::plan, maxInFlight).planAll(requests);
+  }
+
+  /**
+   * Variant of {@link #planAll(Collection, int)} which streams the outcomes to {@code onComplete}
+   * in completion order. The consumer is called on the calling thread.
+   */
+  public void planAll(
+      Collection<TripPlanParameters> requests, int maxInFlight, Consumer<PlanOutcome> onComplete)
+      throws InterruptedException {
+    new BulkPlanner(this::plan, maxInFlight).planAll(requests, onComplete);
+  }
+
+  /** The projection of a profile, in which the fields are in the same order for every profile. */
+  private static PlanResponseProjection planProjection(ResponseProfile profile) {
+    final LegResponseProjection legProjection = new LegResponseProjection();
+    if (profile.contains(LegField.ACCESSIBILITY_SCORE)) {
+      legProjection.accessibilityScore();
+    }
+    legProjection.mode().startTime().endTime();
+    if (profile.contains(LegField.HEADSIGN)) {
+      legProjection.headsign();
+    }
+    if (profile.contains(LegField.PLACES)) {
+      legProjection.from(PLACE_PROJECTION).to(PLACE_PROJECTION);
+    }
+    if (profile.contains(LegField.INTERMEDIATE_PLACES)) {
+      legProjection.intermediatePlaces(PLACE_PROJECTION);
+    }
+    if (profile.contains(LegField.AGENCY)) {
+      legProjection.agency(AGENCY_PROJECTION);
+    }
+    if (profile.contains(LegField.TRIP)) {
+      legProjection.trip(new TripResponseProjection().gtfsId().tripHeadsign());
+    }
+    if (profile.contains(LegField.ROUTE)) {
+      legProjection.route(ROUTE_PROJECTION);
+    }
+    if (profile.contains(LegField.GEOMETRY)) {
+      legProjection.legGeometry(new GeometryResponseProjection().points().length());
+    }
+    legProjection.interlineWithPreviousLeg().duration();
+    if (profile.contains(LegField.FARE_PRODUCTS)) {
+      legProjection.fareProducts(
+          new FareProductUseResponseProjection()
+              .product(
+                  new FareProductResponseProjection()
+                      .name()
+                      .riderCategory(new RiderCategoryResponseProjection().all$())
+                      .medium(new FareMediumResponseProjection().all$())
+                      .onDefaultFareProduct(new DefaultFareProductResponseProjection().all$())));
+    }
+    var itineraryProjection = new ItineraryResponseProjection();
+    if (profile.contains(LegField.ACCESSIBILITY_SCORE)) {
+      itineraryProjection.accessibilityScore();
+    }
+    return new PlanResponseProjection()
+        .itineraries(itineraryProjection.duration().legs(legProjection))
+        .nextPageCursor()
+        .previousPageCursor();
   }
 
   /**
@@ -173,12 +416,12 @@ public class OtpApiClient {
    *     API docs</a>
    */
   public List<Route> routes() throws IOException {
-    var req = new RoutesQueryRequest();
-
-    var graphQLRequest = new GraphQLRequest(req, ROUTE_PROJECTION);
+    return sendQuery(Operation.ROUTES, ROUTES_QUERY, Map.of(), "routes", ROUTE_LIST);
+  }
 
-    var result = sendRequest(graphQLRequest.toHttpJsonBody());
-    return deserializeList(result, listType(Route.class), "/data/routes");
+  /** Non-blocking variant of {@link #routes()}. */
+  public CompletableFuture<List<Route>> routesAsync() {
+    return sendQueryAsync(Operation.ROUTES, ROUTES_QUERY, Map.of(), "routes", ROUTE_LIST);
   }
 
   /**
@@ -189,9 +432,22 @@ public class OtpApiClient {
    *     API docs</a>
    */
   public List<VehicleRentalStation> vehicleRentalStations() throws IOException {
-    var json = sendWrappedRequest(GraphQLQueries.vehicleRentalStations());
-    var type = listType(VehicleRentalStation.class);
-    return deserializeList(json, type, "/data/vehicleRentalStations");
+    return sendQuery(
+        Operation.VEHICLE_RENTAL_STATIONS,
+        VEHICLE_RENTAL_STATIONS_QUERY,
+        Map.of(),
+        "vehicleRentalStations",
+        VEHICLE_RENTAL_STATION_LIST);
+  }
+
+  /** Non-blocking variant of {@link #vehicleRentalStations()}. */
+  public CompletableFuture<List<VehicleRentalStation>> vehicleRentalStationsAsync() {
+    return sendQueryAsync(
+        Operation.VEHICLE_RENTAL_STATIONS,
+        VEHICLE_RENTAL_STATIONS_QUERY,
+        Map.of(),
+        "vehicleRentalStations",
+        VEHICLE_RENTAL_STATION_LIST);
   }
 
   /**
@@ -201,9 +457,12 @@ public class OtpApiClient {
    *     API docs</a>
    */
   public List<Pattern> patterns() throws IOException {
-    var json = sendWrappedRequest(GraphQLQueries.patterns());
-    var type = listType(Pattern.class);
-    return deserializeList(json, type, "/data/patterns");
+    return sendQuery(Operation.PATTERNS, PATTERNS_QUERY, Map.of(), "patterns", PATTERN_LIST);
+  }
+
+  /** Non-blocking variant of {@link #patterns()}. */
+  public CompletableFuture<List<Pattern>> patternsAsync() {
+    return sendQueryAsync(Operation.PATTERNS, PATTERNS_QUERY, Map.of(), "patterns", PATTERN_LIST);
   }
 
   /**
@@ -213,9 +472,12 @@ public class OtpApiClient {
    *     API docs</a>
    */
   public List<Agency> agencies() throws IOException {
-    var json = sendWrappedRequest(GraphQLQueries.agencies());
-    var type = listType(Agency.class);
-    return deserializeList(json, type, "/data/agencies");
+    return sendQuery(Operation.AGENCIES, AGENCIES_QUERY, Map.of(), "agencies", AGENCY_LIST);
+  }
+
+  /** Non-blocking variant of {@link #agencies()}. */
+  public CompletableFuture<List<Agency>> agenciesAsync() {
+    return sendQueryAsync(Operation.AGENCIES, AGENCIES_QUERY, Map.of(), "agencies", AGENCY_LIST);
   }
 
   /**
@@ -225,76 +487,525 @@ public class OtpApiClient {
    *     docs</a>
    */
   public Stop stop(String gtfsId) throws IOException {
+    return sendQuery(Operation.STOP, STOP_QUERY, Map.of("id", gtfsId), "stop", STOP);
+  }
 
-    var stopQuery = GraphQLQueries.stop();
-    var formattedQuery = stopQuery.formatted(gtfsId);
-
-    final var jsonNode = sendWrappedRequest(formattedQuery);
-    return deserialize(jsonNode, "/data/stop", Stop.class);
+  /** Non-blocking variant of {@link #stop(String)}. */
+  public CompletableFuture<Stop> stopAsync(String gtfsId) {
+    return sendQueryAsync(Operation.STOP, STOP_QUERY, Map.of("id", gtfsId), "stop", STOP);
   }
 
   /** Use full text search to query for stops. */
   public List<Stop> stopSearch(String nameMask) throws IOException {
-    var stopQuery = GraphQLQueries.stops();
-    var formattedQuery = stopQuery.formatted(nameMask);
+    return sendQuery(
+        Operation.STOP_SEARCH, STOPS_QUERY, Map.of("name", nameMask), "stops", STOP_LIST);
+  }
 
-    final var jsonNode = sendWrappedRequest(formattedQuery);
-    return deserializeList(jsonNode, listType(Stop.class), "/data/stops");
+  /** Non-blocking variant of {@link #stopSearch(String)}. */
+  public CompletableFuture<List<Stop>> stopSearchAsync(String nameMask) {
+    return sendQueryAsync(
+        Operation.STOP_SEARCH, STOPS_QUERY, Map.of("name", nameMask), "stops", STOP_LIST);
   }
 
   /** Get all alerts. */
   public List<Alert> alerts() throws IOException {
-    var query = GraphQLQueries.alerts();
-    final var jsonNode = sendWrappedRequest(query);
-    return deserializeList(jsonNode, listType(Alert.class), "/data/alerts");
+    return sendQuery(Operation.ALERTS, ALERTS_QUERY, Map.of(), "alerts", ALERT_LIST);
+  }
+
+  /** Non-blocking variant of {@link #alerts()}. */
+  public CompletableFuture<List<Alert>> alertsAsync() {
+    return sendQueryAsync(Operation.ALERTS, ALERTS_QUERY, Map.of(), "alerts", ALERT_LIST);
+  }
+
+  /** Counters of the HTTP attempts, retries and hedges made by this client. */
+  public RetryStats retryStats() {
+    return retrier.stats();
+  }
+
+  /**
+   * The endpoints of this client with their load, latency and ejection state. Each has its own
+   * {@link ConcurrencyLimiter} and {@link CircuitBreaker} if they were configured via {@link
+   * Builder#concurrencyLimit(ConcurrencyLimitPolicy)} and {@link
+   * Builder#circuitBreaker(CircuitBreakerPolicy)}.
+   */
+  public List<Endpoint> endpoints() {
+    return loadBalancer.endpoints();
+  }
+
+  /**
+   * Close the HTTP clients that were created by this instance. Clients passed in via the builder
+   * are owned by the caller and are left open.
+   */
+  @Override
+  public void close() throws IOException {
+    loadBalancer.close();
+    if (ownsHttpClient) {
+      httpClient.close();
+    }
+    var asyncClient = asyncHttpClient;
+    if (customAsyncHttpClient == null && asyncClient != null) {
+      asyncClient.close(CloseMode.GRACEFUL);
+    }
+  }
+
+  /** Probe an endpoint with the smallest possible query. */
+  private void healthCheck(URI uri) throws IOException {
+    var httpPost = new HttpPost(uri);
+    httpPost.setEntity(new StringEntity(HEALTH_CHECK_BODY, ContentType.APPLICATION_JSON));
+    httpClient.execute(
+        httpPost,
+        response -> {
+          EntityUtils.consume(response.getEntity());
+          if (response.getCode() != 200) {
+            throw new HttpStatusException(
+                "Health check of '%s' returned status code %s".formatted(uri, response.getCode()),
+                response.getCode());
+          }
+          return null;
+        });
+  }
+
+  private static JavaType listType(Class<?> clazz) {
+    return TypeFactory.defaultInstance().constructCollectionType(List.class, clazz);
+  }
+
+  /** Reads the interesting parts of a response body. */
+  @FunctionalInterface
+  private interface BodyReader<T> {
+    T read(InputStream body, @Nullable RequestSample.Attempt attempt) throws IOException;
+  }
+
+  /** Reader for the field {@code data.<field>} of the response into the given type. */
+  private <T> BodyReader<T> dataField(String field, JavaType type) {
+    return (body, attempt) -> responseReader.read(body, field, type, attempt);
   }
 
-  private <T> T deserialize(JsonNode jsonNode, String path, Class<T> clazz) throws IOException {
+  private <T> T sendQuery(
+      Operation operation,
+      PreparedQuery query,
+      Map<String, ?> variables,
+      String field,
+      JavaType type)
+      throws IOException {
+    return sendQuery(operation, query, variables, dataField(field, type));
+  }
+
+  private <T> CompletableFuture<T> sendQueryAsync(
+      Operation operation,
+      PreparedQuery query,
+      Map<String, ?> variables,
+      String field,
+      JavaType type) {
+    return sendQueryAsync(operation, query, variables, dataField(field, type));
+  }
+
+  /**
+   * Send a prepared query with its variables and read the response with the given reader.
+   *
+   * <p>If persisted queries are enabled only the hash of the document is sent. When the server
+   * reports the hash as unknown the request is repeated once with the full document, which lets the
+   * server register it for subsequent requests.
+   *
+   * <p>If request coalescing is enabled, concurrent calls with the same query and variables share
+   * one HTTP exchange and its deserialized result.
+   *
+   * <p>If metrics are enabled, the timings of the request are collected in a {@link RequestSample}
+   * which is passed down to the exchange and the reader of the response. JFR events are emitted for
+   * the query, each HTTP exchange and each deserialization while a recording is running.
+   */
+  private <T> T sendQuery(
+      Operation operation, PreparedQuery query, Map<String, ?> variables, BodyReader<T> reader)
+      throws IOException {
+    var sample = metrics == null ? null : new RequestSample(operation);
+    var event = QueryEvent.begin(operation);
     try {
-      var plan = jsonNode.at(path);
-      return mapper.treeToValue(plan, clazz);
-    } catch (IOException e) {
-      LOG.error("Could not deserialize response: {}", jsonNode.toPrettyString());
+      var variablesJson = serialize(variables, sample, event);
+      Retrier.Attempt<T> send = () -> sendQuery(operation, query, variablesJson, reader, sample);
+      var result =
+          singleFlight == null
+              ? send.call()
+              : singleFlight.execute(new RequestKey(query, variablesJson), send::call);
+      complete(sample, event, null);
+      return result;
+    } catch (IOException | RuntimeException e) {
+      complete(sample, event, e);
       throw e;
     }
   }
 
-  private <T> List<T> deserializeList(JsonNode json, CollectionType type, String path)
+  private <T> T sendQuery(
+      Operation operation,
+      PreparedQuery query,
+      String variablesJson,
+      BodyReader<T> reader,
+      @Nullable RequestSample sample)
+      throws IOException {
+    if (!persistedQueries) {
+      return sendRequest(operation, query.toHttpJsonBody(variablesJson), reader, sample);
+    }
+    try {
+      return sendRequest(
+          operation, query.toPersistedHttpJsonBody(variablesJson, false), reader, sample);
+    } catch (GraphQLException e) {
+      if (!isPersistedQueryMiss(e)) {
+        throw e;
+      }
+      return sendRequest(
+          operation, query.toPersistedHttpJsonBody(variablesJson, true), reader, sample);
+    }
+  }
+
+  private <T> CompletableFuture<T> sendQueryAsync(
+      Operation operation, PreparedQuery query, Map<String, ?> variables, BodyReader<T> reader) {
+    var sample = metrics == null ? null : new RequestSample(operation);
+    var event = QueryEvent.begin(operation);
+    final String variablesJson;
+    try {
+      variablesJson = serialize(variables, sample, event);
+    } catch (IOException e) {
+      complete(sample, event, e);
+      return CompletableFuture.failedFuture(e);
+    }
+    Supplier<CompletableFuture<T>> send =
+        () -> sendQueryAsync(operation, query, variablesJson, reader, sample);
+    var result =
+        singleFlight == null
+            ? send.get()
+            : singleFlight.executeAsync(new RequestKey(query, variablesJson), send);
+    if (sample == null && event == null) {
+      return result;
+    }
+    return result.whenComplete((value, error) -> complete(sample, event, error));
+  }
+
+  private <T> CompletableFuture<T> sendQueryAsync(
+      Operation operation,
+      PreparedQuery query,
+      String variablesJson,
+      BodyReader<T> reader,
+      @Nullable RequestSample sample) {
+    if (!persistedQueries) {
+      return sendRequestAsync(operation, query.toHttpJsonBody(variablesJson), reader, sample);
+    }
+    return sendRequestAsync(
+            operation, query.toPersistedHttpJsonBody(variablesJson, false), reader, sample)
+        .exceptionallyCompose(
+            e -> {
+              var cause = e instanceof CompletionException ? e.getCause() : e;
+              if (cause instanceof GraphQLException gqlException
+                  && isPersistedQueryMiss(gqlException)) {
+                return sendRequestAsync(
+                    operation, query.toPersistedHttpJsonBody(variablesJson, true), reader, sample);
+              }
+              return CompletableFuture.failedFuture(cause);
+            });
+  }
+
+  private String serialize(
+      Map<String, ?> variables, @Nullable RequestSample sample, @Nullable QueryEvent event)
       throws JsonProcessingException {
-    return mapper.treeToValue(json.at(path), type);
+    if (sample == null) {
+      var json = mapper.writeValueAsString(variables);
+      QueryEvent.variables(event, json);
+      return json;
+    }
+    var start = System.nanoTime();
+    var json = mapper.writeValueAsString(variables);
+    sample.recordSerialization(System.nanoTime() - start);
+    QueryEvent.variables(event, json);
+    return json;
   }
 
-  private static CollectionType listType(Class<?> clazz) {
-    return TypeFactory.defaultInstance().constructCollectionType(List.class, clazz);
+  /**
+   * Hand the sample to the metrics listener, which must not break the request when it fails, and
+   * commit the JFR event.
+   */
+  private void complete(
+      @Nullable RequestSample sample, @Nullable QueryEvent event, @Nullable Throwable error) {
+    var outcome = Outcome.of(error);
+    QueryEvent.commit(event, outcome);
+    if (sample == null) {
+      return;
+    }
+    sample.complete(outcome);
+    try {
+      metrics.onRequest(sample);
+    } catch (RuntimeException e) {
+      LOG.warn("Metrics listener failed", e);
+    }
   }
 
-  private JsonNode sendRequest(GraphQLRequest req) throws IOException {
-    return sendRequest(req.toHttpJsonBody());
+  /**
+   * Identifies a request for coalescing. Prepared queries are compiled once, so they can be
+   * compared by identity, and the query determines how the response is read.
+   */
+  private record RequestKey(PreparedQuery query, String variablesJson) {}
+
+  /**
+   * Check if the server didn't know the persisted query. If it doesn't support persisted queries at
+   * all they are switched off for this client.
+   */
+  private boolean isPersistedQueryMiss(GraphQLException e) {
+    if (e.errorMessages().contains(PERSISTED_QUERY_NOT_SUPPORTED)) {
+      LOG.warn("Server doesn't support persisted queries, disabling them");
+      persistedQueries = false;
+      return true;
+    }
+    return e.errorMessages().contains(PERSISTED_QUERY_NOT_FOUND);
+  }
+
+  /**
+   * Send the request body and read the response with the given reader, retrying according to the
+   * {@link RetryPolicy}. Each attempt is sent to the endpoint chosen by the load balancer and
+   * passes its concurrency limiter and circuit breaker.
+   *
+   * <p>Every attempt, including retries, hedges and the re-send of a persisted query, takes a token
+   * from the rate limiter of the operation before an endpoint is chosen, so that the limit holds
+   * for what the server actually receives.
+   */
+  private <T> T sendRequest(
+      Operation operation, String body, BodyReader<T> reader, @Nullable RequestSample sample)
+      throws IOException {
+    return retrier.execute(
+        () -> {
+          rateLimits.acquire(operation);
+          return loadBalancer.execute(e -> exchange(operation, e.uri(), body, reader, sample));
+        });
+  }
+
+  private <T> CompletableFuture<T> sendRequestAsync(
+      Operation operation, String body, BodyReader<T> reader, @Nullable RequestSample sample) {
+    return retrier.executeAsync(
+        () ->
+            Futures.thenCompose(
+                rateLimits.acquireAsync(operation),
+                ignored ->
+                    loadBalancer.executeAsync(
+                        e -> exchangeAsync(operation, e.uri(), body, reader, sample))));
+  }
+
+  /** Make a single HTTP exchange. */
+  private <T> T exchange(
+      Operation operation,
+      URI uri,
+      String body,
+      BodyReader<T> reader,
+      @Nullable RequestSample sample)
+      throws IOException {
+    LOG.debug("Sending GraphQL query to {}: {}", uri, body);
+
+    HttpPost httpPost = new HttpPost(uri);
+    if (compressResponses) {
+      httpPost.setHeader(HttpHeaders.ACCEPT_ENCODING, HttpCompression.ACCEPT_ENCODING);
+    }
+    if (shouldCompress(body)) {
+      httpPost.setEntity(
+          new ByteArrayEntity(
+              HttpCompression.gzip(body), ContentType.APPLICATION_JSON, HttpCompression.GZIP));
+    } else {
+      httpPost.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+    }
+    var attempt = sample == null ? null : sample.startAttempt();
+    var event = ExchangeEvent.begin(operation, uri);
+    var start = System.nanoTime();
+    var succeeded = false;
+    try {
+      var result =
+          httpClient.execute(
+              httpPost,
+              response -> {
+                var networkNanos = System.nanoTime() - start;
+                if (attempt != null) {
+                  attempt.recordNetwork(networkNanos);
+                }
+                ExchangeEvent.response(event, response.getCode(), networkNanos);
+                var entity = response.getEntity();
+                try (var in =
+                    entity == null ? InputStream.nullInputStream() : entity.getContent()) {
+                  var code = response.getCode();
+                  if (attempt == null && event == null) {
+                    return readResponse(
+                        operation, uri, code, contentEncoding(response), in, reader, null);
+                  }
+                  var counting = new CountingInputStream(in);
+                  try {
+                    return readResponse(
+                        operation, uri, code, contentEncoding(response), counting, reader, attempt);
+                  } finally {
+                    if (attempt != null) {
+                      attempt.recordResponseBytes(counting.getCount());
+                    }
+                    ExchangeEvent.responseBytes(event, counting.getCount());
+                  }
+                }
+              });
+      succeeded = true;
+      return result;
+    } finally {
+      if (attempt != null) {
+        attempt.complete(succeeded);
+      }
+      ExchangeEvent.commit(event);
+    }
   }
 
-  private JsonNode sendRequest(String formattedQuery) throws IOException {
-    LOG.debug("Sending GraphQL query to {}: {}", graphQlUri, formattedQuery);
+  private <T> CompletableFuture<T> exchangeAsync(
+      Operation operation,
+      URI uri,
+      String body,
+      BodyReader<T> reader,
+      @Nullable RequestSample sample) {
+    LOG.debug("Sending async GraphQL query to {}: {}", uri, body);
 
-    HttpPost httpPost = new HttpPost(graphQlUri);
-    var stringEntity = new StringEntity(formattedQuery, ContentType.APPLICATION_JSON);
-    httpPost.setEntity(stringEntity);
-    var response = httpClient.execute(httpPost);
-    if (response.getCode() != 200) {
-      throw new IOException(
-          "HTTP request to '%s' returned status code %s".formatted(graphQlUri, response.getCode()));
+    var requestBuilder = SimpleRequestBuilder.post(uri);
+    if (compressResponses) {
+      requestBuilder.setHeader(HttpHeaders.ACCEPT_ENCODING, HttpCompression.ACCEPT_ENCODING);
     }
-    var jsonNode = mapper.readTree(response.getEntity().getContent());
+    if (shouldCompress(body)) {
+      try {
+        requestBuilder
+            .setBody(HttpCompression.gzip(body), ContentType.APPLICATION_JSON)
+            .setHeader(HttpHeaders.CONTENT_ENCODING, HttpCompression.GZIP);
+      } catch (IOException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    } else {
+      requestBuilder.setBody(body, ContentType.APPLICATION_JSON);
+    }
+    SimpleHttpRequest request = requestBuilder.build();
+    var future = new CompletableFuture<T>();
+    var attempt = sample == null ? null : sample.startAttempt();
+    var event = ExchangeEvent.begin(operation, uri);
+    var start = System.nanoTime();
+    var exchange =
+        asyncHttpClient()
+            .execute(
+                request,
+                new FutureCallback<>() {
+                  @Override
+                  public void completed(SimpleHttpResponse response) {
+                    var bytes = response.getBodyBytes();
+                    if (bytes == null) {
+                      bytes = new byte[0];
+                    }
+                    var networkNanos = System.nanoTime() - start;
+                    if (attempt != null) {
+                      attempt.recordNetwork(networkNanos);
+                      attempt.recordResponseBytes(bytes.length);
+                    }
+                    ExchangeEvent.response(event, response.getCode(), networkNanos);
+                    ExchangeEvent.responseBytes(event, bytes.length);
+                    try (var in = new ByteArrayInputStream(bytes)) {
+                      var value =
+                          readResponse(
+                              operation,
+                              uri,
+                              response.getCode(),
+                              contentEncoding(response),
+                              in,
+                              reader,
+                              attempt);
+                      if (attempt != null) {
+                        attempt.complete(true);
+                      }
+                      ExchangeEvent.commit(event);
+                      future.complete(value);
+                    } catch (IOException | RuntimeException e) {
+                      if (attempt != null) {
+                        attempt.complete(false);
+                      }
+                      ExchangeEvent.commit(event);
+                      future.completeExceptionally(e);
+                    }
+                  }
+
+                  @Override
+                  public void failed(Exception e) {
+                    ExchangeEvent.commit(event);
+                    future.completeExceptionally(
+                        e instanceof IOException ? e : new IOException(e.getMessage(), e));
+                  }
+
+                  @Override
+                  public void cancelled() {
+                    ExchangeEvent.commit(event);
+                    future.cancel(false);
+                  }
+                });
+    // a hedged request that lost is cancelled, which aborts the exchange
+    future.whenComplete(
+        (value, e) -> {
+          if (future.isCancelled()) {
+            exchange.cancel(true);
+          }
+        });
+    return future;
+  }
+
+  /**
+   * The async client spawns its own I/O threads, so it is only created and started when the first
+   * non-blocking request is made.
+   */
+  private CloseableHttpAsyncClient asyncHttpClient() {
+    var client = asyncHttpClient;
+    if (client == null) {
+      synchronized (this) {
+        client = asyncHttpClient;
+        if (client == null) {
+          client =
+              Objects.requireNonNullElseGet(
+                  customAsyncHttpClient,
+                  () -> HttpAsyncClients.custom().disableContentCompression().build());
+          client.start();
+          asyncHttpClient = client;
+        }
+      }
+    }
+    return client;
+  }
 
-    LOG.trace("Received the following JSON: {}", jsonNode.toPrettyString());
-    return jsonNode;
+  private boolean shouldCompress(String body) {
+    return requestCompressionThreshold >= 0 && body.length() >= requestCompressionThreshold;
   }
 
-  @Deprecated
-  private JsonNode sendWrappedRequest(String formattedQuery) throws IOException {
-    var body = mapper.createObjectNode();
-    body.put("query", formattedQuery);
-    var bodyString = mapper.writeValueAsString(body);
-    return sendRequest(bodyString);
+  @Nullable
+  private static String contentEncoding(HttpResponse response) {
+    var header = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+    return header == null ? null : header.getValue();
+  }
+
+  private <T> T readResponse(
+      Operation operation,
+      URI uri,
+      int code,
+      @Nullable String contentEncoding,
+      InputStream body,
+      BodyReader<T> reader,
+      @Nullable RequestSample.Attempt attempt)
+      throws IOException {
+    if (code != 200) {
+      throw new HttpStatusException(
+          "HTTP request to '%s' returned status code %s".formatted(uri, code), code);
+    }
+    body = HttpCompression.decode(contentEncoding, body);
+    if (LOG.isTraceEnabled()) {
+      var bytes = body.readAllBytes();
+      LOG.trace("Received the following JSON: {}", new String(bytes, StandardCharsets.UTF_8));
+      body = new ByteArrayInputStream(bytes);
+    }
+    var event = DeserializationEvent.begin(operation, uri);
+    var start = System.nanoTime();
+    try {
+      return reader.read(body, attempt);
+    } catch (JsonProcessingException e) {
+      LOG.error("Could not deserialize response from '{}': {}", uri, e.getMessage());
+      throw e;
+    } finally {
+      if (attempt != null) {
+        attempt.recordDeserialization(System.nanoTime() - start);
+      }
+      DeserializationEvent.commit(event);
+    }
   }
 
   /**
@@ -310,6 +1021,10 @@ public class OtpApiClient {
     BuilderNeedsTimeZone graphQLUri(final String uri);
 
     BuilderNeedsTimeZone baseUri(final String uri);
+
+    BuilderNeedsTimeZone graphQLUris(final List<String> uris);
+
+    BuilderNeedsTimeZone baseUris(final List<String> baseUris);
   }
 
   public sealed interface BuilderNeedsTimeZone permits BuilderImpl {
@@ -319,13 +1034,52 @@ public class OtpApiClient {
   public sealed interface Builder permits BuilderImpl {
     Builder httpClient(final CloseableHttpClient httpClient);
 
+    Builder asyncHttpClient(final CloseableHttpAsyncClient asyncHttpClient);
+
+    Builder persistedQueries(final boolean enabled);
+
+    Builder planCache(final PlanCache planCache);
+
+    Builder coalesceRequests(final boolean enabled);
+
+    Builder compressResponses(final boolean enabled);
+
+    Builder requestCompressionThreshold(final int characters);
+
+    Builder retryPolicy(final RetryPolicy retryPolicy);
+
+    Builder concurrencyLimit(final ConcurrencyLimitPolicy policy);
+
+    Builder circuitBreaker(final CircuitBreakerPolicy policy);
+
+    Builder loadBalancing(final LoadBalancingPolicy policy);
+
+    Builder rateLimits(final RateLimits rateLimits);
+
+    Builder metrics(final MetricsListener listener);
+
+    Builder internReferenceData(final boolean enabled);
+
     OtpApiClient build();
   }
 
   public static final class BuilderImpl implements BuilderNeedsUri, BuilderNeedsTimeZone, Builder {
     private ZoneId zoneId;
-    private String uri;
+    private List<String> uris;
     private CloseableHttpClient httpClient;
+    private CloseableHttpAsyncClient asyncHttpClient;
+    private boolean persistedQueries = false;
+    private PlanCache planCache;
+    private boolean coalesceRequests = false;
+    private boolean compressResponses = true;
+    private int requestCompressionThreshold = -1;
+    private RetryPolicy retryPolicy = RetryPolicy.NONE;
+    private ConcurrencyLimitPolicy concurrencyLimitPolicy;
+    private CircuitBreakerPolicy circuitBreakerPolicy;
+    private LoadBalancingPolicy loadBalancingPolicy = LoadBalancingPolicy.DEFAULT;
+    private RateLimits rateLimits = RateLimits.builder().build();
+    private MetricsListener metrics;
+    private boolean internReferenceData = false;
 
     private BuilderImpl() {}
 
@@ -338,7 +1092,7 @@ public class OtpApiClient {
     @Override
     public BuilderNeedsTimeZone graphQLUri(final String uri) {
       Objects.requireNonNull(uri, "uri must not be null");
-      this.uri = uri;
+      this.uris = List.of(uri);
       return this;
     }
 
@@ -352,10 +1106,38 @@ public class OtpApiClient {
     @Override
     public BuilderNeedsTimeZone baseUri(final String baseUri) {
       Objects.requireNonNull(baseUri, "baseUri must not be null");
-      this.uri = baseUri + DEFAULT_GRAPHQL_PATH;
+      this.uris = List.of(baseUri + DEFAULT_GRAPHQL_PATH);
+      return this;
+    }
+
+    /**
+     * Set the full URIs of several replicas of the same GraphQL API. Requests are balanced between
+     * them according to the {@link #loadBalancing(LoadBalancingPolicy)}.
+     *
+     * @param uris the full URIs to use
+     * @return this builder instance
+     */
+    @Override
+    public BuilderNeedsTimeZone graphQLUris(final List<String> uris) {
+      if (uris.isEmpty()) {
+        throw new IllegalArgumentException("uris must not be empty");
+      }
+      this.uris = List.copyOf(uris);
       return this;
     }
 
+    /**
+     * Set the base URIs of several replicas, each of which will be concatenated with the default
+     * GraphQL path.
+     *
+     * @param baseUris the base URIs to use
+     * @return this builder instance
+     */
+    @Override
+    public BuilderNeedsTimeZone baseUris(final List<String> baseUris) {
+      return graphQLUris(baseUris.stream().map(u -> u + DEFAULT_GRAPHQL_PATH).toList());
+    }
+
     /**
      * Set the time zone used by the client.
      *
@@ -382,6 +1164,190 @@ public class OtpApiClient {
       return this;
     }
 
+    /**
+     * Specify the async HTTP client used by the non-blocking {@code *Async} methods. It is started
+     * by the {@link OtpApiClient} on first use if it isn't running already.
+     *
+     * @param asyncHttpClient the async HTTP client to use, or null to reset to the default
+     * @return this builder instance
+     */
+    @Override
+    public Builder asyncHttpClient(final CloseableHttpAsyncClient asyncHttpClient) {
+      this.asyncHttpClient = asyncHttpClient;
+      return this;
+    }
+
+    /**
+     * Enable <a href="https://www.apollographql.com/docs/apollo-server/performance/apq">automatic
+     * persisted queries</a>. Requests then only carry the SHA-256 hash of the query document
+     * instead of the document itself. If the server doesn't know the hash yet, the request is
+     * repeated once with the full document. Disabled by default.
+     *
+     * @param enabled whether to send persisted queries
+     * @return this builder instance
+     */
+    @Override
+    public Builder persistedQueries(final boolean enabled) {
+      this.persistedQueries = enabled;
+      return this;
+    }
+
+    /**
+     * Cache the results of {@link OtpApiClient#plan(TripPlanParameters)} and {@link
+     * OtpApiClient#planAsync(TripPlanParameters)}. A cache may be shared by several clients as long
+     * as they talk to the same server.
+     *
+     * @param planCache the cache to use, or null to disable caching
+     * @return this builder instance
+     */
+    @Override
+    public Builder planCache(final PlanCache planCache) {
+      this.planCache = planCache;
+      return this;
+    }
+
+    /**
+     * Coalesce identical concurrent requests: while a request is in flight, callers sending the
+     * same query with the same variables wait for it and receive the same deserialized result
+     * instead of sending their own. Results are shared between callers, so they must not be
+     * modified. Disabled by default.
+     *
+     * @param enabled whether to coalesce identical concurrent requests
+     * @return this builder instance
+     */
+    @Override
+    public Builder coalesceRequests(final boolean enabled) {
+      this.coalesceRequests = enabled;
+      return this;
+    }
+
+    /**
+     * Ask the server for gzip or deflate compressed responses, which are decompressed while they
+     * are parsed. Plan responses with leg geometries shrink considerably. Enabled by default.
+     *
+     * @param enabled whether to send an {@code Accept-Encoding} header
+     * @return this builder instance
+     */
+    @Override
+    public Builder compressResponses(final boolean enabled) {
+      this.compressResponses = enabled;
+      return this;
+    }
+
+    /**
+     * Gzip request bodies that are at least this long. Only enable this if the server, or a proxy
+     * in front of it, accepts compressed requests. Disabled by default.
+     *
+     * @param characters the minimum length of a body to compress, or a negative value to disable
+     *     request compression
+     * @return this builder instance
+     */
+    @Override
+    public Builder requestCompressionThreshold(final int characters) {
+      this.requestCompressionThreshold = characters;
+      return this;
+    }
+
+    /**
+     * Retry requests that failed with a transient error, such as a timeout or a 503 status, and
+     * optionally hedge slow requests. By default every request is sent exactly once.
+     *
+     * @param retryPolicy the policy to use
+     * @return this builder instance
+     */
+    @Override
+    public Builder retryPolicy(final RetryPolicy retryPolicy) {
+      this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy must not be null");
+      return this;
+    }
+
+    /**
+     * Limit the number of concurrent requests with a limit that adapts to the latency and errors of
+     * the server. Requests above the limit are queued or rejected with a {@link
+     * org.opentripplanner.client.resilience.RequestRejectedException}. Disabled by default.
+     *
+     * @param policy the limiter configuration, or null to disable the limiter
+     * @return this builder instance
+     */
+    @Override
+    public Builder concurrencyLimit(final ConcurrencyLimitPolicy policy) {
+      this.concurrencyLimitPolicy = policy;
+      return this;
+    }
+
+    /**
+     * Fail requests fast while the server is unhealthy, instead of adding to its load. Disabled by
+     * default.
+     *
+     * @param policy the circuit breaker configuration, or null to disable the circuit breaker
+     * @return this builder instance
+     */
+    @Override
+    public Builder circuitBreaker(final CircuitBreakerPolicy policy) {
+      this.circuitBreakerPolicy = policy;
+      return this;
+    }
+
+    /**
+     * Configure how requests are balanced between several endpoints, see {@link
+     * #graphQLUris(List)}. By default the endpoint with the lower latency of two random ones is
+     * used and endpoints are ejected after five consecutive failures.
+     *
+     * @param policy the load balancing configuration
+     * @return this builder instance
+     */
+    @Override
+    public Builder loadBalancing(final LoadBalancingPolicy policy) {
+      this.loadBalancingPolicy = Objects.requireNonNull(policy, "policy must not be null");
+      return this;
+    }
+
+    /**
+     * Limit the rate of requests per {@link Operation}, for example to keep bulk planning within a
+     * quota. By default requests are not limited.
+     *
+     * @param rateLimits the limiters to use
+     * @return this builder instance
+     */
+    @Override
+    public Builder rateLimits(final RateLimits rateLimits) {
+      this.rateLimits = Objects.requireNonNull(rateLimits, "rateLimits must not be null");
+      return this;
+    }
+
+    /**
+     * Record the serialization, network, parse and mapping time, the response size and the outcome
+     * of every request, for example in an {@link InMemoryMetrics}. Disabled by default.
+     *
+     * @param listener the listener to pass the samples to, or null to disable metrics
+     * @return this builder instance
+     */
+    @Override
+    public Builder metrics(final MetricsListener listener) {
+      this.metrics = listener;
+      return this;
+    }
+
+    /**
+     * Share equal routes, agencies, stops and fare products between all responses of the client
+     * instead of only within each response, which saves memory when many plans are kept, for
+     * example in a {@link PlanCache}. Up to 100,000 entities are kept; when there are more, the
+     * ones that were used least recently are evicted, so entities that the server no longer
+     * returns, like outdated versions of a route, don't stay in memory. Disabled by default.
+     *
+     * <p>The shared instances end up in the results of every caller of the client. Routes are
+     * generated types whose lists are not copied, so they, like all returned entities, must be
+     * treated as read-only: a caller that modifies one changes every other plan that refers to it.
+     *
+     * @param enabled whether to share entities between responses
+     * @return this builder instance
+     */
+    @Override
+    public Builder internReferenceData(final boolean enabled) {
+      this.internReferenceData = enabled;
+      return this;
+    }
+
     /**
      * Build and return a new {@link OtpApiClient} instance.
      *
@@ -0,0 +1,30 @@
+package org.opentripplanner.client;
+
+import java.util.Optional;
+import org.opentripplanner.client.model.TripPlan;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+
+/**
+ * The result of a single request in a bulk planning run, either a trip plan or the exception that
+ * was thrown while computing it.
+ *
+ * @param index the position of the parameters in the input collection
+ * @param parameters the parameters that were sent
+ * @param plan the trip plan if the request succeeded
+ * @param error the exception if the request failed
+ */
+public record PlanOutcome(
+    int index, TripPlanParameters parameters, Optional<TripPlan> plan, Optional<Exception> error) {
+
+  static PlanOutcome success(int index, TripPlanParameters parameters, TripPlan plan) {
+    return new PlanOutcome(index, parameters, Optional.of(plan), Optional.empty());
+  }
+
+  static PlanOutcome failure(int index, TripPlanParameters parameters, Exception error) {
+    return new PlanOutcome(index, parameters, Optional.empty(), Optional.of(error));
+  }
+
+  public boolean isSuccess() {
+    return plan.isPresent();
+  }
+}
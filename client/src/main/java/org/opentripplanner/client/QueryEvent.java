@@ -0,0 +1,60 @@
+package org.opentripplanner.client;
+
+import jakarta.annotation.Nullable;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.opentripplanner.client.metrics.Outcome;
+
+/**
+ * JFR event of a query of {@link OtpApiClient}, from the serialization of its variables until its
+ * result was deserialized, including retries and time spent waiting for limiters. The variables
+ * allow latency outliers to be traced back to the plan parameters which caused them.
+ */
+@Name("org.opentripplanner.client.Query")
+@Label("OTP Query")
+@Category({"OpenTripPlanner", "Client"})
+@Description("A query sent by the OTP API client")
+@StackTrace(false)
+final class QueryEvent extends jdk.jfr.Event {
+
+  private static final EventType TYPE = EventType.getEventType(QueryEvent.class);
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Outcome")
+  String outcome;
+
+  @Label("Variables")
+  @Description("The GraphQL variables of the query as JSON")
+  String variables;
+
+  /** Begin the event of a query before its variables are serialized, or return null if disabled. */
+  @Nullable
+  static QueryEvent begin(Operation operation) {
+    if (!TYPE.isEnabled()) {
+      return null;
+    }
+    var event = new QueryEvent();
+    event.operation = operation.methodName();
+    event.begin();
+    return event;
+  }
+
+  static void variables(@Nullable QueryEvent event, String variables) {
+    if (event != null) {
+      event.variables = variables;
+    }
+  }
+
+  static void commit(@Nullable QueryEvent event, Outcome outcome) {
+    if (event != null) {
+      event.outcome = outcome.name();
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package org.opentripplanner.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key: the first caller executes the call and all callers
+ * that arrive while it is in flight receive its result. Once the call has completed the next caller
+ * starts a new one, so unlike a cache this never returns outdated results.
+ */
+final class SingleFlight {
+
+  @FunctionalInterface
+  interface Call<T> {
+    T call() throws IOException;
+  }
+
+  private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight =
+      new ConcurrentHashMap<>();
+
+  /** Execute a blocking call or wait for the identical call that is already in flight. */
+  <T> T execute(Object key, Call<T> call) throws IOException {
+    var future = new CompletableFuture<Object>();
+    var running = inFlight.putIfAbsent(key, future);
+    if (running != null) {
+      return await(running);
+    }
+    try {
+      T result = call.call();
+      inFlight.remove(key, future);
+      future.complete(result);
+      return result;
+    } catch (IOException | RuntimeException | Error e) {
+      inFlight.remove(key, future);
+      future.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /** Start a non-blocking call or share the identical call that is already in flight. */
+  <T> CompletableFuture<T> executeAsync(Object key, Supplier<CompletableFuture<T>> call) {
+    var future = new CompletableFuture<Object>();
+    var running = inFlight.putIfAbsent(key, future);
+    if (running != null) {
+      return cast(running.copy());
+    }
+    call.get()
+        .whenComplete(
+            (result, e) -> {
+              inFlight.remove(key, future);
+              if (e == null) {
+                future.complete(result);
+              } else {
+                future.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+              }
+            });
+    // every caller gets its own copy, so that cancelling it doesn't affect the others
+    return cast(future.copy());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> CompletableFuture<T> cast(CompletableFuture<Object> future) {
+    return (CompletableFuture<T>) (CompletableFuture<?>) future;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T await(CompletableFuture<Object> future) throws IOException {
+    try {
+      return (T) future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a coalesced request");
+    } catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof IOException io) {
+        throw io;
+      }
+      if (cause instanceof RuntimeException r) {
+        throw r;
+      }
+      if (cause instanceof Error err) {
+        throw err;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
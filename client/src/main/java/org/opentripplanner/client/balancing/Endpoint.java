@@ -0,0 +1,120 @@
+package org.opentripplanner.client.balancing;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opentripplanner.client.resilience.CircuitBreaker;
+import org.opentripplanner.client.resilience.EndpointGuard;
+
+/** One GraphQL endpoint of a {@link LoadBalancer} and what the client has observed about it. */
+public final class Endpoint {
+
+  private final URI uri;
+  private final EndpointGuard guard;
+  private final double ewmaSmoothing;
+  private final AtomicInteger outstanding = new AtomicInteger();
+  private int consecutiveFailures;
+  private double ewmaNanos;
+
+  /** The {@link System#nanoTime()} until which the endpoint is ejected, 0 if it isn't. */
+  private volatile long ejectedUntil;
+
+  Endpoint(URI uri, EndpointGuard guard, double ewmaSmoothing) {
+    this.uri = uri;
+    this.guard = guard;
+    this.ewmaSmoothing = ewmaSmoothing;
+  }
+
+  public URI uri() {
+    return uri;
+  }
+
+  /** The concurrency limiter and circuit breaker of this endpoint. */
+  public EndpointGuard guard() {
+    return guard;
+  }
+
+  /** The number of requests in flight. */
+  public int outstanding() {
+    return outstanding.get();
+  }
+
+  /** The moving average of the latency. */
+  public synchronized Duration ewmaLatency() {
+    return Duration.ofNanos((long) ewmaNanos);
+  }
+
+  public boolean isEjected() {
+    var until = ejectedUntil;
+    return until != 0 && System.nanoTime() - until < 0;
+  }
+
+  /**
+   * Whether the endpoint should receive requests. An endpoint whose concurrency limiter is
+   * saturated would only reject them.
+   */
+  boolean isAvailable() {
+    return !isEjected()
+        && guard.circuitBreaker().map(b -> b.state() != CircuitBreaker.State.OPEN).orElse(true)
+        && guard.limiter().map(l -> !l.isSaturated()).orElse(true);
+  }
+
+  /** The cost of sending one more request here, lower is better. */
+  double cost(LoadBalancingPolicy.Strategy strategy) {
+    return switch (strategy) {
+      case LEAST_OUTSTANDING -> outstanding.get();
+      case EWMA -> ewma() * (outstanding.get() + 1);
+    };
+  }
+
+  void onStart() {
+    outstanding.incrementAndGet();
+  }
+
+  /**
+   * The guard of the endpoint rejected the request before it was sent, or it was cancelled, which
+   * says nothing about the latency of the endpoint.
+   */
+  void onAbandoned() {
+    outstanding.decrementAndGet();
+  }
+
+  void onComplete(long latencyNanos, boolean failed, LoadBalancingPolicy policy) {
+    outstanding.decrementAndGet();
+    if (failed) {
+      latencyNanos = Math.max(latencyNanos, policy.failurePenalty().toNanos());
+    }
+    synchronized (this) {
+      // a latency above the average counts fully at once, so that a slowing endpoint is avoided
+      // quickly, while it recovers only gradually
+      ewmaNanos =
+          latencyNanos > ewmaNanos
+              ? latencyNanos
+              : ewmaNanos + ewmaSmoothing * (latencyNanos - ewmaNanos);
+      if (!failed) {
+        consecutiveFailures = 0;
+      } else if (++consecutiveFailures >= policy.ejectionThreshold()) {
+        eject(policy.ejectionDuration());
+        consecutiveFailures = 0;
+      }
+    }
+  }
+
+  void eject(Duration duration) {
+    ejectedUntil = System.nanoTime() + duration.toNanos();
+  }
+
+  synchronized void reinstate() {
+    ejectedUntil = 0;
+    consecutiveFailures = 0;
+  }
+
+  private synchronized double ewma() {
+    return ewmaNanos;
+  }
+
+  @Override
+  public String toString() {
+    return uri.toString();
+  }
+}
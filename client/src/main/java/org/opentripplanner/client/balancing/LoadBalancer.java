@@ -0,0 +1,160 @@
+package org.opentripplanner.client.balancing;
+
+import jakarta.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.opentripplanner.client.resilience.EndpointGuard;
+import org.opentripplanner.client.resilience.Futures;
+import org.opentripplanner.client.resilience.RequestRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Distributes requests over several endpoints of the same OTP deployment.
+ *
+ * <p>Each request picks two random available endpoints and uses the cheaper one according to the
+ * {@link LoadBalancingPolicy.Strategy} ("power of two choices"), which avoids the herd behaviour of
+ * always picking the single best endpoint. Endpoints that fail repeatedly are ejected for a while;
+ * if all endpoints are ejected, all of them are used again.
+ */
+public final class LoadBalancer implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LoadBalancer.class);
+
+  /** Sends a lightweight request to an endpoint and returns normally if it is healthy. */
+  @FunctionalInterface
+  public interface HealthCheck {
+    void check(URI uri) throws IOException;
+  }
+
+  @FunctionalInterface
+  public interface EndpointAttempt<T> {
+    T call(Endpoint endpoint) throws IOException;
+  }
+
+  private final List<Endpoint> endpoints;
+  private final LoadBalancingPolicy policy;
+  private ScheduledExecutorService healthChecks;
+
+  public LoadBalancer(
+      List<URI> uris, LoadBalancingPolicy policy, Supplier<EndpointGuard> guardFactory) {
+    if (uris.isEmpty()) {
+      throw new IllegalArgumentException("At least one endpoint is required");
+    }
+    this.policy = Objects.requireNonNull(policy);
+    this.endpoints =
+        uris.stream()
+            .distinct()
+            .map(uri -> new Endpoint(uri, guardFactory.get(), policy.ewmaSmoothing()))
+            .toList();
+  }
+
+  public List<Endpoint> endpoints() {
+    return endpoints;
+  }
+
+  /** Start probing the endpoints if the policy has a health check interval. */
+  public synchronized void startHealthChecks(HealthCheck healthCheck) {
+    var interval = policy.healthCheckInterval();
+    if (interval == null || healthChecks != null) {
+      return;
+    }
+    healthChecks =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("otp-health-check").daemon().factory());
+    healthChecks.scheduleWithFixedDelay(
+        () -> endpoints.forEach(e -> probe(e, healthCheck)),
+        interval.toMillis(),
+        interval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  private void probe(Endpoint endpoint, HealthCheck healthCheck) {
+    try {
+      healthCheck.check(endpoint.uri());
+      if (endpoint.isEjected()) {
+        LOG.info("Endpoint {} passed its health check, bringing it back", endpoint);
+      }
+      endpoint.reinstate();
+    } catch (IOException | RuntimeException e) {
+      if (!endpoint.isEjected()) {
+        LOG.warn("Endpoint {} failed its health check, ejecting it: {}", endpoint, e.getMessage());
+      }
+      endpoint.eject(policy.ejectionDuration());
+    }
+  }
+
+  /** Choose the endpoint for the next request. */
+  Endpoint select() {
+    if (endpoints.size() == 1) {
+      return endpoints.getFirst();
+    }
+    var candidates = endpoints.stream().filter(Endpoint::isAvailable).toList();
+    if (candidates.isEmpty()) {
+      candidates = endpoints;
+    }
+    if (candidates.size() == 1) {
+      return candidates.getFirst();
+    }
+    var random = ThreadLocalRandom.current();
+    var i = random.nextInt(candidates.size());
+    var j = random.nextInt(candidates.size() - 1);
+    var a = candidates.get(i);
+    var b = candidates.get(j < i ? j : j + 1);
+    return a.cost(policy.strategy()) <= b.cost(policy.strategy()) ? a : b;
+  }
+
+  public <T> T execute(EndpointAttempt<T> attempt) throws IOException {
+    var endpoint = select();
+    endpoint.onStart();
+    var start = System.nanoTime();
+    try {
+      T result = endpoint.guard().execute(() -> attempt.call(endpoint));
+      onComplete(endpoint, start, null);
+      return result;
+    } catch (IOException | RuntimeException e) {
+      onComplete(
+          endpoint,
+          start,
+          Thread.currentThread().isInterrupted() ? new CancellationException() : e);
+      throw e;
+    }
+  }
+
+  public <T> CompletableFuture<T> executeAsync(Function<Endpoint, CompletableFuture<T>> attempt) {
+    var endpoint = select();
+    endpoint.onStart();
+    var start = System.nanoTime();
+    return Futures.whenComplete(
+        endpoint.guard().executeAsync(() -> attempt.apply(endpoint)),
+        (value, e) -> onComplete(endpoint, start, e));
+  }
+
+  private void onComplete(Endpoint endpoint, long start, @Nullable Throwable e) {
+    var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    if (cause instanceof RequestRejectedException || cause instanceof CancellationException) {
+      endpoint.onAbandoned();
+    } else {
+      endpoint.onComplete(System.nanoTime() - start, EndpointGuard.isFailure(cause), policy);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (healthChecks != null) {
+      healthChecks.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package org.opentripplanner.client.balancing;
+
+import jakarta.annotation.Nullable;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * How requests are distributed over several endpoints.
+ *
+ * @param strategy how the endpoint for a request is chosen
+ * @param ewmaSmoothing the weight of a new latency sample in the moving average, between 0 and 1
+ * @param ejectionThreshold the number of consecutive failures after which an endpoint is ejected
+ * @param ejectionDuration how long an ejected endpoint receives no requests
+ * @param failurePenalty the latency that a failed request counts with at least, so that endpoints
+ *     which fail fast don't look fast
+ * @param healthCheckInterval how often every endpoint is probed, or null to disable active health
+ *     checks
+ */
+public record LoadBalancingPolicy(
+    Strategy strategy,
+    double ewmaSmoothing,
+    int ejectionThreshold,
+    Duration ejectionDuration,
+    Duration failurePenalty,
+    @Nullable Duration healthCheckInterval) {
+
+  public static final LoadBalancingPolicy DEFAULT = builder().build();
+
+  public enum Strategy {
+    /** Prefer the endpoint with the fewest requests in flight. */
+    LEAST_OUTSTANDING,
+    /**
+     * Prefer the endpoint with the lowest moving average of the latency, weighted by the requests
+     * in flight.
+     */
+    EWMA
+  }
+
+  public LoadBalancingPolicy {
+    Objects.requireNonNull(strategy);
+    if (ewmaSmoothing <= 0 || ewmaSmoothing > 1) {
+      throw new IllegalArgumentException("ewmaSmoothing must be in (0, 1]");
+    }
+    if (ejectionThreshold < 1) {
+      throw new IllegalArgumentException("ejectionThreshold must be at least 1");
+    }
+    Objects.requireNonNull(ejectionDuration);
+    Objects.requireNonNull(failurePenalty);
+    if (healthCheckInterval != null
+        && (healthCheckInterval.isZero() || healthCheckInterval.isNegative())) {
+      throw new IllegalArgumentException("healthCheckInterval must be positive");
+    }
+  }
+
+  public static LoadBalancingPolicyBuilder builder() {
+    return new LoadBalancingPolicyBuilder();
+  }
+}
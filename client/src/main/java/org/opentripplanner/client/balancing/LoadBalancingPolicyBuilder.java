@@ -0,0 +1,59 @@
+package org.opentripplanner.client.balancing;
+
+import java.time.Duration;
+import org.opentripplanner.client.balancing.LoadBalancingPolicy.Strategy;
+
+public class LoadBalancingPolicyBuilder {
+  private Strategy strategy = Strategy.EWMA;
+  private double ewmaSmoothing = 0.3;
+  private int ejectionThreshold = 5;
+  private Duration ejectionDuration = Duration.ofSeconds(30);
+  private Duration failurePenalty = Duration.ofSeconds(5);
+  private Duration healthCheckInterval;
+
+  public LoadBalancingPolicyBuilder withStrategy(Strategy strategy) {
+    this.strategy = strategy;
+    return this;
+  }
+
+  public LoadBalancingPolicyBuilder withEwmaSmoothing(double ewmaSmoothing) {
+    this.ewmaSmoothing = ewmaSmoothing;
+    return this;
+  }
+
+  /** Eject an endpoint for {@code duration} after {@code consecutiveFailures} failed requests. */
+  public LoadBalancingPolicyBuilder withEjection(int consecutiveFailures, Duration duration) {
+    this.ejectionThreshold = consecutiveFailures;
+    this.ejectionDuration = duration;
+    return this;
+  }
+
+  /**
+   * The latency that a failed request counts with in the moving average, if it took less. A refused
+   * connection fails within microseconds, which would otherwise make the endpoint the preferred
+   * one.
+   */
+  public LoadBalancingPolicyBuilder withFailurePenalty(Duration failurePenalty) {
+    this.failurePenalty = failurePenalty;
+    return this;
+  }
+
+  /**
+   * Probe every endpoint at this interval. A failed probe ejects the endpoint, a successful one
+   * brings an ejected endpoint back.
+   */
+  public LoadBalancingPolicyBuilder withHealthCheckInterval(Duration healthCheckInterval) {
+    this.healthCheckInterval = healthCheckInterval;
+    return this;
+  }
+
+  public LoadBalancingPolicy build() {
+    return new LoadBalancingPolicy(
+        strategy,
+        ewmaSmoothing,
+        ejectionThreshold,
+        ejectionDuration,
+        failurePenalty,
+        healthCheckInterval);
+  }
+}
@@ -0,0 +1,135 @@
+package org.opentripplanner.client.cache;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import org.opentripplanner.client.model.Coordinate;
+import org.opentripplanner.client.model.PlaceParameter;
+import org.opentripplanner.client.model.TripPlan;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+import org.opentripplanner.client.query.PlanQuery;
+
+/**
+ * An in-memory cache of trip plans keyed by a canonical form of the {@link TripPlanParameters}.
+ *
+ * <p>Entries expire after a fixed time and the least recently used ones are evicted when the cache
+ * is full. To increase the hit rate the departure time can be rounded down to a bucket, and
+ * coordinates can be snapped to a grid, so that near-identical requests share an entry.
+ */
+public final class PlanCache {
+
+  private final Cache<Map<String, Object>, TripPlan> cache;
+  @Nullable private final Duration timeBucket;
+  private final double coordinateGrid;
+
+  PlanCache(
+      Duration timeToLive, long maximumSize, @Nullable Duration timeBucket, double coordinateGrid) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(timeToLive)
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+    this.timeBucket = timeBucket;
+    this.coordinateGrid = coordinateGrid;
+  }
+
+  public static PlanCacheBuilder builder() {
+    return new PlanCacheBuilder();
+  }
+
+  /**
+   * Return the cached plan for the parameters or compute it with {@code loader}. Concurrent calls
+   * for the same key wait for a single load.
+   */
+  public TripPlan get(TripPlanParameters params, Loader loader) throws IOException {
+    try {
+      return cache.get(key(params), loader::load);
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      throw new IOException(e.getCause());
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  /** Return the cached plan for the parameters, if there is one. */
+  public Optional<TripPlan> getIfPresent(TripPlanParameters params) {
+    return Optional.ofNullable(cache.getIfPresent(key(params)));
+  }
+
+  public void put(TripPlanParameters params, TripPlan plan) {
+    cache.put(key(params), plan);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /** The current number of entries. */
+  public long size() {
+    return cache.size();
+  }
+
+  public Stats stats() {
+    var s = cache.stats();
+    return new Stats(s.hitCount(), s.missCount(), s.evictionCount());
+  }
+
+  /**
+   * The canonical form of the parameters: the variables that would be sent to OTP, with the time
+   * rounded to the bucket and the coordinates snapped to the grid.
+   */
+  Map<String, Object> key(TripPlanParameters params) {
+    var key = PlanQuery.variables(params);
+    key.put("fromPlace", place(params.fromPlace()));
+    key.put("toPlace", place(params.toPlace()));
+    // plans with fewer fields must not be returned for requests that want all of them
+    key.put("responseProfile", params.responseProfile());
+    if (timeBucket != null) {
+      var time = roundDown(params.time(), timeBucket);
+      key.put("time", time.toLocalTime().toString());
+      key.put("date", time.toLocalDate().toString());
+    }
+    return key;
+  }
+
+  private String place(PlaceParameter place) {
+    if (coordinateGrid > 0 && place instanceof Coordinate c) {
+      return "%d,%d"
+          .formatted(Math.round(c.lat() / coordinateGrid), Math.round(c.lon() / coordinateGrid));
+    }
+    return place.toPlaceString();
+  }
+
+  private static LocalDateTime roundDown(LocalDateTime time, Duration bucket) {
+    var seconds = time.toEpochSecond(ZoneOffset.UTC);
+    var rounded = seconds - Math.floorMod(seconds, bucket.toSeconds());
+    return LocalDateTime.ofEpochSecond(rounded, 0, ZoneOffset.UTC);
+  }
+
+  /** Computes a plan on a cache miss. */
+  @FunctionalInterface
+  public interface Loader {
+    TripPlan load() throws IOException;
+  }
+
+  /**
+   * Counters of the cache.
+   *
+   * @param hits requests which were answered from the cache
+   * @param misses requests which had to be sent to OTP
+   * @param evictions entries which were removed because the cache was full or they had expired
+   */
+  public record Stats(long hits, long misses, long evictions) {}
+}
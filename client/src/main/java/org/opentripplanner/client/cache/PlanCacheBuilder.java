@@ -0,0 +1,51 @@
+package org.opentripplanner.client.cache;
+
+import java.time.Duration;
+import java.util.Objects;
+
+public class PlanCacheBuilder {
+  private Duration timeToLive = Duration.ofMinutes(1);
+  private long maximumSize = 10_000;
+  private Duration timeBucket;
+  private double coordinateGrid = 0;
+
+  /** How long a plan stays in the cache after it was fetched. Defaults to one minute. */
+  public PlanCacheBuilder withTimeToLive(Duration timeToLive) {
+    this.timeToLive = Objects.requireNonNull(timeToLive);
+    return this;
+  }
+
+  /** The maximum number of plans after which the least recently used are evicted. */
+  public PlanCacheBuilder withMaximumSize(long maximumSize) {
+    this.maximumSize = maximumSize;
+    return this;
+  }
+
+  /**
+   * Round the departure or arrival time down to a multiple of this duration, so that requests in
+   * the same bucket share an entry. Null, the default, disables rounding.
+   */
+  public PlanCacheBuilder withTimeBucket(Duration timeBucket) {
+    this.timeBucket = timeBucket;
+    return this;
+  }
+
+  /**
+   * Snap coordinates to a grid with this cell size in degrees, so that requests for nearby
+   * coordinates share an entry. 0, the default, disables snapping.
+   */
+  public PlanCacheBuilder withCoordinateGrid(double degrees) {
+    this.coordinateGrid = degrees;
+    return this;
+  }
+
+  public PlanCache build() {
+    if (timeBucket != null && timeBucket.toSeconds() < 1) {
+      throw new IllegalArgumentException("timeBucket must be at least one second");
+    }
+    if (coordinateGrid < 0) {
+      throw new IllegalArgumentException("coordinateGrid must not be negative");
+    }
+    return new PlanCache(timeToLive, maximumSize, timeBucket, coordinateGrid);
+  }
+}
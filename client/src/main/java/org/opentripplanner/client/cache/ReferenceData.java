@@ -0,0 +1,52 @@
+package org.opentripplanner.client.cache;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.opentripplanner.api.types.Route;
+import org.opentripplanner.client.model.Agency;
+import org.opentripplanner.client.model.Pattern;
+
+/**
+ * An immutable snapshot of the reference data of a server.
+ *
+ * @param routes the routes keyed by their GTFS id
+ * @param agencies the agencies keyed by their GTFS id
+ * @param patterns the patterns, which don't have an id in the query
+ * @param fetchedAt when the snapshot was downloaded
+ */
+public record ReferenceData(
+    Map<String, Route> routes,
+    Map<String, Agency> agencies,
+    List<Pattern> patterns,
+    Instant fetchedAt) {
+
+  static ReferenceData of(
+      List<Route> routes, List<Agency> agencies, List<Pattern> patterns, Instant fetchedAt) {
+    return new ReferenceData(
+        index(routes, Route::getGtfsId),
+        index(agencies, Agency::id),
+        List.copyOf(patterns),
+        fetchedAt);
+  }
+
+  public Optional<Route> route(String gtfsId) {
+    return Optional.ofNullable(routes.get(gtfsId));
+  }
+
+  public Optional<Agency> agency(String gtfsId) {
+    return Optional.ofNullable(agencies.get(gtfsId));
+  }
+
+  /** Index by id, keeping the order of the server and the first entry for duplicate ids. */
+  private static <T> Map<String, T> index(Collection<T> values, Function<T, String> id) {
+    var map = new LinkedHashMap<String, T>();
+    values.forEach(v -> map.putIfAbsent(id.apply(v), v));
+    return Collections.unmodifiableMap(map);
+  }
+}
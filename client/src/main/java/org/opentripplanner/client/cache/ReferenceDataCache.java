@@ -0,0 +1,109 @@
+package org.opentripplanner.client.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.opentripplanner.client.OtpApiClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the routes, agencies and patterns of a server in memory and refreshes them periodically in
+ * the background.
+ *
+ * <p>Readers always get the latest complete {@link ReferenceData} without blocking. If a refresh
+ * fails the previous snapshot is kept and served until the next refresh succeeds.
+ */
+public final class ReferenceDataCache implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+  private final OtpApiClient client;
+  private final ScheduledExecutorService scheduler;
+  private final AtomicReference<CompletableFuture<ReferenceData>> inFlight =
+      new AtomicReference<>();
+  private volatile ReferenceData data;
+
+  private ReferenceDataCache(OtpApiClient client) {
+    this.client = client;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("otp-reference-data-refresh").daemon().factory());
+  }
+
+  /**
+   * Download the reference data and schedule a refresh every {@code refreshInterval}. This blocks
+   * until the first snapshot is available.
+   */
+  public static ReferenceDataCache start(OtpApiClient client, Duration refreshInterval)
+      throws IOException {
+    Objects.requireNonNull(client);
+    if (refreshInterval.isNegative() || refreshInterval.isZero()) {
+      throw new IllegalArgumentException("refreshInterval must be positive");
+    }
+    var cache = new ReferenceDataCache(client);
+    try {
+      cache.refresh().join();
+    } catch (CompletionException e) {
+      cache.close();
+      throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+    }
+    var millis = refreshInterval.toMillis();
+    cache.scheduler.scheduleWithFixedDelay(
+        () -> cache.refresh().join(), millis, millis, TimeUnit.MILLISECONDS);
+    return cache;
+  }
+
+  /** The latest snapshot. */
+  public ReferenceData get() {
+    return data;
+  }
+
+  /**
+   * Download a new snapshot in the background. Calls while a refresh is running share it.
+   *
+   * @return a future that completes with the new snapshot, or with the previous one if the refresh
+   *     failed after the first snapshot was loaded
+   */
+  public CompletableFuture<ReferenceData> refresh() {
+    var future = new CompletableFuture<ReferenceData>();
+    var running = inFlight.compareAndExchange(null, future);
+    if (running != null) {
+      return running;
+    }
+    var routes = client.routesAsync();
+    var agencies = client.agenciesAsync();
+    var patterns = client.patternsAsync();
+    CompletableFuture.allOf(routes, agencies, patterns)
+        .whenComplete(
+            (ignored, e) -> {
+              inFlight.set(null);
+              if (e == null) {
+                data =
+                    ReferenceData.of(
+                        routes.join(), agencies.join(), patterns.join(), Instant.now());
+                future.complete(data);
+              } else if (data != null) {
+                LOG.warn("Could not refresh reference data, keeping the stale snapshot", e);
+                future.complete(data);
+              } else {
+                future.completeExceptionally(e);
+              }
+            });
+    return future;
+  }
+
+  /** Stop refreshing. The last snapshot remains readable. */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,121 @@
+package org.opentripplanner.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative long values with a relative precision of better than 2% over the
+ * whole range of {@code long}, in the manner of an HdrHistogram: values are grouped into buckets of
+ * powers of two, each of which is split into 64 linear sub-buckets.
+ *
+ * <p>Recording a value is lock-free and doesn't allocate, the memory of about 30 KiB is allocated
+ * up front. Values recorded while the histogram is read may or may not be included in the result.
+ */
+public final class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 7;
+
+  /** The number of sub-buckets in the first bucket, which holds the values below it exactly. */
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+  /** Enough buckets for the highest bit of {@link Long#MAX_VALUE}. */
+  private static final int LENGTH = index(Long.MAX_VALUE) + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(LENGTH);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /** Record a value. Negative values, which mark values that weren't measured, are ignored. */
+  public void record(long value) {
+    if (value < 0) {
+      return;
+    }
+    counts.incrementAndGet(index(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  public long max() {
+    return max.get();
+  }
+
+  public double mean() {
+    var n = count.sum();
+    return n == 0 ? 0 : (double) sum.sum() / n;
+  }
+
+  /**
+   * The value below which the given percentage of the recorded values fall, as the highest value
+   * that is equivalent to it within the precision of the histogram.
+   *
+   * @param percentile a percentile between 0 and 100
+   * @return the value or 0 if nothing was recorded
+   */
+  public long valueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100");
+    }
+    var total = 0L;
+    for (int i = 0; i < LENGTH; i++) {
+      total += counts.get(i);
+    }
+    if (total == 0) {
+      return 0;
+    }
+    var rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    var seen = 0L;
+    for (int i = 0; i < LENGTH; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestEquivalentValue(i), max());
+      }
+    }
+    return max();
+  }
+
+  /** Clear all recorded values. */
+  public void reset() {
+    for (int i = 0; i < LENGTH; i++) {
+      counts.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.reset();
+  }
+
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    // keep the highest SUB_BUCKET_BITS bits of the value
+    var shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+    var subBucket = (int) (value >>> shift) - HALF_SUB_BUCKETS;
+    return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + subBucket;
+  }
+
+  static long highestEquivalentValue(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    var offset = index - SUB_BUCKETS;
+    var shift = offset / HALF_SUB_BUCKETS + 1;
+    long subBucket = offset % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+    var lowest = subBucket << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  @Override
+  public String toString() {
+    return "Histogram{count=%d, mean=%.1f, p50=%d, p99=%d, max=%d}"
+        .formatted(count(), mean(), valueAtPercentile(50), valueAtPercentile(99), max());
+  }
+}
@@ -0,0 +1,63 @@
+package org.opentripplanner.client.metrics;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.opentripplanner.client.Operation;
+
+/**
+ * A {@link MetricsListener} which keeps a {@link Histogram} of each phase of the requests and
+ * counts their outcomes per {@link Operation}, so that percentiles can be reported or exported to a
+ * monitoring system periodically. Recording is lock-free and doesn't allocate, so it can be left
+ * enabled in production.
+ *
+ * <pre>{@code
+ * var metrics = new InMemoryMetrics();
+ * var client = OtpApiClient.builder().baseUri(uri).timeZone(zone).metrics(metrics).build();
+ * ...
+ * var p99 = metrics.operation(Operation.PLAN).network().valueAtPercentile(99);
+ * }</pre>
+ */
+public final class InMemoryMetrics implements MetricsListener {
+
+  /** Indexed by the ordinal of the operation, created on first use. */
+  private final AtomicReferenceArray<OperationMetrics> operations =
+      new AtomicReferenceArray<>(Operation.values().length);
+
+  @Override
+  public void onRequest(RequestSample sample) {
+    operation(sample.operation()).record(sample);
+  }
+
+  /** The metrics of the given operation. */
+  public OperationMetrics operation(Operation operation) {
+    var metrics = operations.get(operation.ordinal());
+    if (metrics == null) {
+      operations.compareAndSet(operation.ordinal(), null, new OperationMetrics(operation));
+      metrics = operations.get(operation.ordinal());
+    }
+    return metrics;
+  }
+
+  /** Clear the metrics of all operations, for example after they were exported. */
+  public void reset() {
+    used().forEach(OperationMetrics::reset);
+  }
+
+  private Stream<OperationMetrics> used() {
+    return IntStream.range(0, operations.length())
+        .mapToObj(operations::get)
+        .filter(Objects::nonNull);
+  }
+
+  /** A summary of the operations that were used, one line per operation. */
+  @Override
+  public String toString() {
+    return used()
+        .filter(m -> m.count() > 0)
+        .map(OperationMetrics::toString)
+        .collect(Collectors.joining("\n"));
+  }
+}
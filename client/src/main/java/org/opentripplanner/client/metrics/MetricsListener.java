@@ -0,0 +1,15 @@
+package org.opentripplanner.client.metrics;
+
+import org.opentripplanner.client.OtpApiClient;
+
+/**
+ * Receives a {@link RequestSample} for every query that {@link OtpApiClient} completes, whether it
+ * succeeded or failed. Listeners are called on the thread that completed the request, so they
+ * should be fast and must be thread-safe.
+ *
+ * @see InMemoryMetrics
+ */
+@FunctionalInterface
+public interface MetricsListener {
+  void onRequest(RequestSample sample);
+}
@@ -0,0 +1,117 @@
+package org.opentripplanner.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.opentripplanner.client.Operation;
+
+/** The histograms and outcome counters of one {@link Operation}, see {@link InMemoryMetrics}. */
+public final class OperationMetrics {
+
+  private final Operation operation;
+  private final Histogram total = new Histogram();
+  private final Histogram serialization = new Histogram();
+  private final Histogram network = new Histogram();
+  private final Histogram responseBytes = new Histogram();
+  private final Histogram parse = new Histogram();
+  private final Histogram mapping = new Histogram();
+  private final AtomicLongArray outcomes = new AtomicLongArray(Outcome.values().length);
+
+  OperationMetrics(Operation operation) {
+    this.operation = operation;
+  }
+
+  void record(RequestSample sample) {
+    total.record(sample.totalNanos());
+    serialization.record(sample.serializationNanos());
+    network.record(sample.networkNanos());
+    responseBytes.record(sample.responseBytes());
+    parse.record(sample.parseNanos());
+    mapping.record(sample.mappingNanos());
+    var outcome = sample.outcome();
+    if (outcome != null) {
+      outcomes.incrementAndGet(outcome.ordinal());
+    }
+  }
+
+  public Operation operation() {
+    return operation;
+  }
+
+  /** The number of completed requests. */
+  public long count() {
+    return total.count();
+  }
+
+  /** The number of requests that completed with the given outcome. */
+  public long count(Outcome outcome) {
+    return outcomes.get(outcome.ordinal());
+  }
+
+  /** The time from the start of a request until it completed, in nanoseconds. */
+  public Histogram total() {
+    return total;
+  }
+
+  /** The time spent serializing the request variables, in nanoseconds. */
+  public Histogram serialization() {
+    return serialization;
+  }
+
+  /** The time spent waiting for the server, in nanoseconds. */
+  public Histogram network() {
+    return network;
+  }
+
+  /** The sizes of the response bodies as they were transferred. */
+  public Histogram responseBytes() {
+    return responseBytes;
+  }
+
+  /** The time spent reading the response apart from the mapping, in nanoseconds. */
+  public Histogram parse() {
+    return parse;
+  }
+
+  /** The time spent binding the response to model objects, in nanoseconds. */
+  public Histogram mapping() {
+    return mapping;
+  }
+
+  void reset() {
+    total.reset();
+    serialization.reset();
+    network.reset();
+    responseBytes.reset();
+    parse.reset();
+    mapping.reset();
+    for (int i = 0; i < outcomes.length(); i++) {
+      outcomes.set(i, 0);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "%s: count=%d errors=%d total[%s] network[%s] serialization[%s] parse[%s] mapping[%s] bytes[%s]"
+        .formatted(
+            operation.methodName(),
+            count(),
+            count() - count(Outcome.SUCCESS),
+            millis(total),
+            millis(network),
+            millis(serialization),
+            millis(parse),
+            millis(mapping),
+            "p50=%d p99=%d max=%d"
+                .formatted(
+                    responseBytes.valueAtPercentile(50),
+                    responseBytes.valueAtPercentile(99),
+                    responseBytes.max()));
+  }
+
+  private static String millis(Histogram nanos) {
+    return "p50=%.3fms p99=%.3fms max=%.3fms"
+        .formatted(
+            nanos.valueAtPercentile(50) / 1e6,
+            nanos.valueAtPercentile(99) / 1e6,
+            nanos.max() / 1e6);
+  }
+}
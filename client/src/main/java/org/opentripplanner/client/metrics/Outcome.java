@@ -0,0 +1,41 @@
+package org.opentripplanner.client.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import org.opentripplanner.client.GraphQLException;
+import org.opentripplanner.client.HttpStatusException;
+import org.opentripplanner.client.resilience.RequestRejectedException;
+
+/** How a request ended. */
+public enum Outcome {
+  SUCCESS,
+  /** The server answered with GraphQL errors instead of data. */
+  GRAPHQL_ERROR,
+  /** The server answered with a status code other than 200. */
+  HTTP_ERROR,
+  /** The response could not be deserialized. */
+  INVALID_RESPONSE,
+  /** The request was rejected by a rate limiter, concurrency limiter or circuit breaker. */
+  REJECTED,
+  /** The request failed with another I/O error, for example a timeout or a refused connection. */
+  NETWORK_ERROR,
+  ERROR;
+
+  /** The outcome of a request that failed with {@code error}, or succeeded if it is null. */
+  public static Outcome of(@Nullable Throwable error) {
+    if (error instanceof CompletionException && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return switch (error) {
+      case null -> SUCCESS;
+      case GraphQLException e -> GRAPHQL_ERROR;
+      case HttpStatusException e -> HTTP_ERROR;
+      case JsonProcessingException e -> INVALID_RESPONSE;
+      case RequestRejectedException e -> REJECTED;
+      case IOException e -> NETWORK_ERROR;
+      default -> ERROR;
+    };
+  }
+}
@@ -0,0 +1,167 @@
+package org.opentripplanner.client.metrics;
+
+import jakarta.annotation.Nullable;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import org.opentripplanner.client.Operation;
+
+/**
+ * The timings of a single query, which are filled in by {@link
+ * org.opentripplanner.client.OtpApiClient} while the request passes through it and handed to the
+ * {@link MetricsListener} when it completes.
+ *
+ * <p>The response is deserialized while it is streamed from the network, so the phases overlap in
+ * the following way:
+ *
+ * <ul>
+ *   <li>network time is measured until the status line and headers arrived for the blocking client,
+ *       and until the whole body arrived for the async client
+ *   <li>mapping time is spent binding the requested fields of {@code data} to model objects
+ *   <li>parse time is the rest of the time spent reading the response, which includes reading and
+ *       decompressing the body, the {@code errors} array and any skipped fields
+ * </ul>
+ *
+ * <p>If a request is retried or hedged, each attempt records its timings in its own {@link
+ * Attempt}. The sample keeps those of the first attempt that succeeded, or if none did, of the last
+ * attempt that received a response. Values that weren't measured, for example the network time of a
+ * request that was coalesced with another one or rejected before it was sent, are -1.
+ *
+ * <p>Attempts may run on other threads than the one that reads the sample, so the timings of an
+ * attempt are published as an immutable snapshot.
+ */
+public final class RequestSample {
+
+  private final Operation operation;
+  private final long startNanos;
+  private volatile long totalNanos = -1;
+  private volatile long serializationNanos = -1;
+  private final AtomicReference<Timings> timings = new AtomicReference<>(Timings.NONE);
+  @Nullable private volatile Outcome outcome;
+
+  public RequestSample(Operation operation) {
+    this.operation = Objects.requireNonNull(operation);
+    this.startNanos = System.nanoTime();
+  }
+
+  public Operation operation() {
+    return operation;
+  }
+
+  /** The outcome, which is null until the request completed. */
+  @Nullable
+  public Outcome outcome() {
+    return outcome;
+  }
+
+  /** The time from the start of the query until it completed, including queueing and retries. */
+  public long totalNanos() {
+    return totalNanos;
+  }
+
+  /** The time spent serializing the request variables to JSON. */
+  public long serializationNanos() {
+    return serializationNanos;
+  }
+
+  public long networkNanos() {
+    return timings.get().networkNanos();
+  }
+
+  /** The size of the response body as it was transferred, so before decompression. */
+  public long responseBytes() {
+    return timings.get().responseBytes();
+  }
+
+  public long parseNanos() {
+    return timings.get().parseNanos();
+  }
+
+  public long mappingNanos() {
+    return timings.get().mappingNanos();
+  }
+
+  public void recordSerialization(long nanos) {
+    serializationNanos = nanos;
+  }
+
+  /** Start recording the timings of a single HTTP exchange. */
+  public Attempt startAttempt() {
+    return new Attempt();
+  }
+
+  /** Mark the request as completed. */
+  public void complete(Outcome outcome) {
+    this.totalNanos = System.nanoTime() - startNanos;
+    this.outcome = outcome;
+  }
+
+  /**
+   * The timings of one HTTP exchange, which are only touched by the thread that runs it until
+   * {@link #complete(boolean)} publishes them to the sample.
+   */
+  public final class Attempt {
+
+    private long networkNanos = -1;
+    private long responseBytes = -1;
+    private long parseNanos = -1;
+    private long mappingNanos = 0;
+
+    private Attempt() {}
+
+    /** Record the network time, which starts the measurement of the response. */
+    public void recordNetwork(long nanos) {
+      networkNanos = nanos;
+    }
+
+    public void recordResponseBytes(long bytes) {
+      responseBytes = bytes;
+    }
+
+    /**
+     * Add the time spent binding a field of the response, which is subtracted from the parse time.
+     */
+    public void recordMapping(long nanos) {
+      mappingNanos += nanos;
+    }
+
+    /** Record the time spent reading the whole response, including the mapping. */
+    public void recordDeserialization(long nanos) {
+      parseNanos = Math.max(0, nanos - mappingNanos);
+    }
+
+    /**
+     * Publish the timings to the sample unless the attempt didn't receive a response or another
+     * attempt has already succeeded.
+     */
+    public void complete(boolean succeeded) {
+      if (networkNanos < 0) {
+        return;
+      }
+      var values = new Timings(networkNanos, responseBytes, parseNanos, mappingNanos, succeeded);
+      timings.updateAndGet(current -> current.succeeded() ? current : values);
+    }
+  }
+
+  private record Timings(
+      long networkNanos,
+      long responseBytes,
+      long parseNanos,
+      long mappingNanos,
+      boolean succeeded) {
+    static final Timings NONE = new Timings(-1, -1, -1, -1, false);
+  }
+
+  @Override
+  public String toString() {
+    return "RequestSample{operation=%s, outcome=%s, totalNanos=%d, serializationNanos=%d, networkNanos=%d, responseBytes=%d, parseNanos=%d, mappingNanos=%d}"
+        .formatted(
+            operation,
+            outcome,
+            totalNanos,
+            serializationNanos,
+            networkNanos(),
+            responseBytes(),
+            parseNanos(),
+            mappingNanos());
+  }
+}
@@ -0,0 +1,32 @@
+package org.opentripplanner.client.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequenceFactory;
+
+/**
+ * Shared JTS geometry factories, one per SRID. Factories are immutable and thread-safe, so there is
+ * no need to create one per geometry.
+ */
+final class Geometries {
+
+  /**
+   * The SRID of WGS 84, as defined in the <a href="https://gtfs.org/schedule/reference/">GTFS</a>.
+   */
+  static final int DEFAULT_SRID = 4326;
+
+  private static final ConcurrentMap<Integer, GeometryFactory> FACTORIES =
+      new ConcurrentHashMap<>();
+
+  private Geometries() {}
+
+  static GeometryFactory factory(int srid) {
+    return FACTORIES.computeIfAbsent(
+        srid,
+        s ->
+            new GeometryFactory(
+                new PrecisionModel(), s, PackedCoordinateSequenceFactory.DOUBLE_FACTORY));
+  }
+}
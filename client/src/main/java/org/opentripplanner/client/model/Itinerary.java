@@ -1,7 +1,11 @@
 package org.opentripplanner.client.model;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.OptionalDouble;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiLineString;
 
 public record Itinerary(List<Leg> legs, OptionalDouble accessibilityScore) {
 
@@ -16,4 +20,56 @@ public record Itinerary(List<Leg> legs, OptionalDouble accessibilityScore) {
   public List<Leg> transitLegs() {
     return legs.stream().filter(Leg::isTransit).toList();
   }
+
+  /** The geometries of the legs as one multi line string, in the order of the legs. */
+  public MultiLineString geometry() {
+    var lines = geometries().stream().map(LegGeometry::toLinestring).toArray(LineString[]::new);
+    return Geometries.factory(Geometries.DEFAULT_SRID).createMultiLineString(lines);
+  }
+
+  /**
+   * The geometries of the legs as one multi line string, simplified with the given tolerance in
+   * degrees.
+   *
+   * @see LegGeometry#simplify(double)
+   */
+  public MultiLineString geometry(double tolerance) {
+    var lines =
+        geometries().stream()
+            .map(g -> g.simplify(tolerance).toLinestring())
+            .toArray(LineString[]::new);
+    return Geometries.factory(Geometries.DEFAULT_SRID).createMultiLineString(lines);
+  }
+
+  /**
+   * The geometries of all legs joined into one line and simplified with the given tolerance in
+   * degrees, for drawing an overview of the itinerary. Use {@link LegGeometry#toGoogleEncoding()}
+   * to send it on as a polyline.
+   */
+  public LegGeometry mergedGeometry(double tolerance) {
+    var merged = Polylines.merge(geometries().stream().map(LegGeometry::coordinates).toList());
+    return LegGeometry.of(Polylines.simplify(merged, tolerance));
+  }
+
+  /**
+   * The bounding box of the itinerary, from the bounding boxes of the leg geometries, which are
+   * computed once per leg, or the places of legs without a geometry. Legs without either are left
+   * out.
+   */
+  public Envelope envelope() {
+    var envelope = new Envelope();
+    for (var leg : legs) {
+      if (leg.geometry() != null) {
+        envelope.expandToInclude(leg.geometry().envelope());
+      } else if (leg.from() != null && leg.to() != null) {
+        envelope.expandToInclude(leg.from().lon(), leg.from().lat());
+        envelope.expandToInclude(leg.to().lon(), leg.to().lat());
+      }
+    }
+    return envelope;
+  }
+
+  private List<LegGeometry> geometries() {
+    return legs.stream().map(Leg::geometry).filter(Objects::nonNull).toList();
+  }
 }
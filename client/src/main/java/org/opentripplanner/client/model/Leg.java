@@ -28,6 +28,18 @@ public record Leg(
     @JsonProperty("rentedBike") boolean rentedVehicle,
     Optional<List<IntermediatePlace>> intermediatePlaces) {
 
+  /**
+   * Fields that weren't requested, see {@link
+   * org.opentripplanner.client.parameters.ResponseProfile}, are null if they are objects and empty
+   * if they are optional or lists.
+   */
+  public Leg {
+    headsign = headsign == null ? Optional.empty() : headsign;
+    fareProducts = fareProducts == null ? List.of() : fareProducts;
+    accessibilityScore = accessibilityScore == null ? OptionalDouble.empty() : accessibilityScore;
+    intermediatePlaces = intermediatePlaces == null ? Optional.empty() : intermediatePlaces;
+  }
+
   /** Is this leg using public transport? */
   public boolean isTransit() {
     return mode.isTransit();
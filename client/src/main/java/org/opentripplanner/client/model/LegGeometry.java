@@ -1,26 +1,90 @@
 package org.opentripplanner.client.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import io.leonard.PolylineUtils;
 import io.leonard.Position;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.LineString;
-import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
 
+/**
+ * The shape of a leg as a Google encoded polyline.
+ *
+ * <p>The polyline is decoded on first use into a packed array of longitude and latitude pairs,
+ * which is kept for later calls. The accessors {@link #numPoints()}, {@link #lon(int)}, {@link
+ * #lat(int)} and {@link #envelope()} read from that array directly, so they don't allocate
+ * coordinates or build a {@link LineString}.
+ */
 public final class LegGeometry {
 
-  private static final int DEFAULT_SRID = 4326;
+  private static final double PRECISION = 1e5;
+
   private final String googleEncoded;
 
+  /** Longitude and latitude of each point, decoded lazily. A race only repeats the decoding. */
+  private volatile double[] coordinates;
+
+  private volatile Envelope envelope;
+
   public LegGeometry(@JsonProperty("points") String googleEncoded) {
     this.googleEncoded = googleEncoded;
   }
 
+  private LegGeometry(String googleEncoded, double[] coordinates) {
+    this.googleEncoded = googleEncoded;
+    this.coordinates = coordinates;
+  }
+
+  /** Create a geometry from longitude and latitude pairs, which must not be modified afterwards. */
+  static LegGeometry of(double[] coordinates) {
+    return new LegGeometry(Polylines.encode(coordinates), coordinates);
+  }
+
   /** Return the as a list of points. */
   List<Position> toPositions() {
-    return PolylineUtils.decode(googleEncoded, 5);
+    var coordinates = coordinates();
+    var positions = new ArrayList<Position>(coordinates.length / 2);
+    for (int i = 0; i < coordinates.length; i += 2) {
+      positions.add(Position.fromLngLat(coordinates[i], coordinates[i + 1]));
+    }
+    return positions;
+  }
+
+  /** The number of points of the geometry. */
+  public int numPoints() {
+    return coordinates().length / 2;
+  }
+
+  /** The longitude of the point at the given index. */
+  public double lon(int index) {
+    return coordinates()[checkIndex(index) * 2];
+  }
+
+  /** The latitude of the point at the given index. */
+  public double lat(int index) {
+    return coordinates()[checkIndex(index) * 2 + 1];
+  }
+
+  /** The point at the given index as a JTS coordinate, with the longitude as x. */
+  public Coordinate coordinate(int index) {
+    return new Coordinate(lon(index), lat(index));
+  }
+
+  /** The bounding box of the geometry, which is empty if it has no points. */
+  public Envelope envelope() {
+    var envelope = this.envelope;
+    if (envelope == null) {
+      envelope = new Envelope();
+      var coordinates = coordinates();
+      for (int i = 0; i < coordinates.length; i += 2) {
+        envelope.expandToInclude(coordinates[i], coordinates[i + 1]);
+      }
+      this.envelope = envelope;
+    }
+    return new Envelope(envelope);
   }
 
   /**
@@ -28,23 +92,90 @@ public final class LegGeometry {
    * href="https://gtfs.org/schedule/reference/#field-types">GTFSdoc </a>.
    */
   public LineString toLinestring() {
-    return toLinestring(DEFAULT_SRID);
+    return toLinestring(Geometries.DEFAULT_SRID);
   }
 
   /** create a JTS Linestring by a passed SRID */
   public LineString toLinestring(int SRID) {
-    Coordinate[] coordinates =
-        toPositions().stream()
-            .map(position -> new Coordinate(position.getLongitude(), position.getLatitude()))
-            .toArray(Coordinate[]::new);
-
-    GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), SRID);
+    // the line string gets its own copy, because JTS geometries are mutable
+    var sequence = new PackedCoordinateSequence.Double(coordinates().clone(), 2, 0);
+    return Geometries.factory(SRID).createLineString(sequence);
+  }
 
-    return geometryFactory.createLineString(coordinates);
+  /**
+   * Simplify the geometry with the Douglas–Peucker algorithm, for drawing it at a lower zoom level.
+   *
+   * @param tolerance the maximum distance of a removed point from the simplified line in degrees,
+   *     so 0.0001 is roughly 10 metres
+   * @return the simplified geometry, or this one if no point could be removed
+   */
+  public LegGeometry simplify(double tolerance) {
+    var coordinates = coordinates();
+    var simplified = Polylines.simplify(coordinates, tolerance);
+    return simplified == coordinates ? this : of(simplified);
   }
 
   /** Return the geometry as a raw Google encoded polyline. */
   public String toGoogleEncoding() {
     return googleEncoded;
   }
+
+  /** The decoded longitude and latitude pairs, which must not be modified. */
+  double[] coordinates() {
+    var coordinates = this.coordinates;
+    if (coordinates == null) {
+      coordinates = decode(googleEncoded);
+      this.coordinates = coordinates;
+    }
+    return coordinates;
+  }
+
+  private int checkIndex(int index) {
+    return Objects.checkIndex(index, numPoints());
+  }
+
+  /**
+   * Decode a polyline with a precision of 5 digits into longitude and latitude pairs. The values
+   * are counted first, so that the array is allocated once with the right size.
+   */
+  static double[] decode(String encoded) {
+    if (encoded == null || encoded.isEmpty()) {
+      return new double[0];
+    }
+    var length = encoded.length();
+    var values = 0;
+    for (int i = 0; i < length; i++) {
+      if (encoded.charAt(i) - 63 < 0x20) {
+        values++;
+      }
+    }
+    var coordinates = new double[values / 2 * 2];
+    int index = 0;
+    long lat = 0;
+    long lon = 0;
+    for (int point = 0; point < coordinates.length; point += 2) {
+      long result = 0;
+      int shift = 0;
+      int b;
+      do {
+        b = encoded.charAt(index++) - 63;
+        result |= (long) (b & 0x1f) << shift;
+        shift += 5;
+      } while (b >= 0x20);
+      lat += (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+
+      result = 0;
+      shift = 0;
+      do {
+        b = encoded.charAt(index++) - 63;
+        result |= (long) (b & 0x1f) << shift;
+        shift += 5;
+      } while (b >= 0x20);
+      lon += (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+
+      coordinates[point] = lon / PRECISION;
+      coordinates[point + 1] = lat / PRECISION;
+    }
+    return coordinates;
+  }
 }
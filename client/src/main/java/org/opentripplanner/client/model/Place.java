@@ -2,9 +2,7 @@ package org.opentripplanner.client.model;
 
 import java.util.Optional;
 import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
-import org.locationtech.jts.geom.PrecisionModel;
 
 public record Place(
     String name,
@@ -15,8 +13,6 @@ public record Place(
     Optional<RentalVehicle> rentalVehicle,
     Optional<VehicleParking> vehicleParking) {
 
-  private static final int DEFAULT_SRID = 4326;
-
   /** create a JTS Geometry */
   public Coordinate coordinate() {
     return new Coordinate(lon, lat);
@@ -27,12 +23,11 @@ public record Place(
    * href="https://gtfs.org/schedule/reference/#field-types">GTFSdoc </a>.
    */
   public Point point() {
-    return point(DEFAULT_SRID);
+    return point(Geometries.DEFAULT_SRID);
   }
 
   /** creates a JTS Point by a passed SRID */
   public Point point(int SRID) {
-    GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), SRID);
-    return geometryFactory.createPoint(coordinate());
+    return Geometries.factory(SRID).createPoint(coordinate());
   }
 }
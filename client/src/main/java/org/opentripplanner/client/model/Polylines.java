@@ -0,0 +1,141 @@
+package org.opentripplanner.client.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Operations on packed arrays of longitude and latitude pairs, as decoded by {@link LegGeometry},
+ * which don't allocate a JTS coordinate per point.
+ */
+final class Polylines {
+
+  private static final double PRECISION = 1e5;
+
+  private Polylines() {}
+
+  /**
+   * Simplify a line with the Douglas–Peucker algorithm, keeping the points which are further than
+   * the tolerance from the simplified line. The tolerance is in degrees, like the coordinates, so
+   * 0.0001 is roughly 10 metres. The first and last point are always kept.
+   */
+  static double[] simplify(double[] coordinates, double tolerance) {
+    if (tolerance < 0) {
+      throw new IllegalArgumentException("tolerance must not be negative");
+    }
+    var points = coordinates.length / 2;
+    if (points < 3) {
+      return coordinates;
+    }
+    var keep = new boolean[points];
+    keep[0] = true;
+    keep[points - 1] = true;
+    var kept = 2;
+    var toleranceSquared = tolerance * tolerance;
+    // ranges of points still to check, as pairs of first and last index
+    var stack = new int[64];
+    var top = 0;
+    stack[top++] = 0;
+    stack[top++] = points - 1;
+    while (top > 0) {
+      var last = stack[--top];
+      var first = stack[--top];
+      var farthest = -1;
+      var maxDistance = toleranceSquared;
+      for (int i = first + 1; i < last; i++) {
+        var distance = segmentDistanceSquared(coordinates, i, first, last);
+        if (distance > maxDistance) {
+          maxDistance = distance;
+          farthest = i;
+        }
+      }
+      if (farthest < 0) {
+        continue;
+      }
+      keep[farthest] = true;
+      kept++;
+      if (top + 4 > stack.length) {
+        stack = Arrays.copyOf(stack, stack.length * 2);
+      }
+      stack[top++] = first;
+      stack[top++] = farthest;
+      stack[top++] = farthest;
+      stack[top++] = last;
+    }
+    if (kept == points) {
+      return coordinates;
+    }
+    var simplified = new double[kept * 2];
+    var j = 0;
+    for (int i = 0; i < points; i++) {
+      if (keep[i]) {
+        simplified[j++] = coordinates[i * 2];
+        simplified[j++] = coordinates[i * 2 + 1];
+      }
+    }
+    return simplified;
+  }
+
+  /**
+   * Join lines end to end into one, leaving out the first point of a line if it is the same as the
+   * last point of the previous one.
+   */
+  static double[] merge(List<double[]> lines) {
+    var length = 0;
+    for (var line : lines) {
+      length += line.length;
+    }
+    var merged = new double[length];
+    var end = 0;
+    for (var line : lines) {
+      var start =
+          end >= 2 && line.length >= 2 && merged[end - 2] == line[0] && merged[end - 1] == line[1]
+              ? 2
+              : 0;
+      System.arraycopy(line, start, merged, end, line.length - start);
+      end += line.length - start;
+    }
+    return end == length ? merged : Arrays.copyOf(merged, end);
+  }
+
+  /** Encode longitude and latitude pairs as a Google polyline with a precision of 5 digits. */
+  static String encode(double[] coordinates) {
+    // most deltas of a route take 2 to 4 characters
+    var encoded = new StringBuilder(coordinates.length * 3);
+    long previousLat = 0;
+    long previousLon = 0;
+    for (int i = 0; i < coordinates.length; i += 2) {
+      var lat = Math.round(coordinates[i + 1] * PRECISION);
+      var lon = Math.round(coordinates[i] * PRECISION);
+      encode(lat - previousLat, encoded);
+      encode(lon - previousLon, encoded);
+      previousLat = lat;
+      previousLon = lon;
+    }
+    return encoded.toString();
+  }
+
+  private static void encode(long delta, StringBuilder encoded) {
+    var value = delta < 0 ? ~(delta << 1) : delta << 1;
+    while (value >= 0x20) {
+      encoded.append((char) ((0x20 | (value & 0x1f)) + 63));
+      value >>= 5;
+    }
+    encoded.append((char) (value + 63));
+  }
+
+  /** The squared distance of a point from the segment between two others. */
+  private static double segmentDistanceSquared(double[] coordinates, int point, int from, int to) {
+    var x = coordinates[point * 2];
+    var y = coordinates[point * 2 + 1];
+    var x1 = coordinates[from * 2];
+    var y1 = coordinates[from * 2 + 1];
+    var dx = coordinates[to * 2] - x1;
+    var dy = coordinates[to * 2 + 1] - y1;
+    var lengthSquared = dx * dx + dy * dy;
+    var t = lengthSquared == 0 ? 0 : ((x - x1) * dx + (y - y1) * dy) / lengthSquared;
+    t = Math.max(0, Math.min(1, t));
+    var px = x1 + t * dx - x;
+    var py = y1 + t * dy - y;
+    return px * px + py * py;
+  }
+}
@@ -1,6 +1,9 @@
 package org.opentripplanner.client.model;
 
 import java.util.List;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiLineString;
 
 public record TripPlan(
     List<Itinerary> itineraries, String nextPageCursor, String previousPageCursor) {
@@ -9,4 +12,40 @@ public record TripPlan(
   public List<Itinerary> transitItineraries() {
     return itineraries.stream().filter(Itinerary::hasTransit).toList();
   }
+
+  /** The geometries of the legs of all itineraries as one multi line string. */
+  public MultiLineString geometry() {
+    return merge(itineraries.stream().map(Itinerary::geometry).toList());
+  }
+
+  /**
+   * The geometries of the legs of all itineraries as one multi line string, simplified with the
+   * given tolerance in degrees.
+   *
+   * @see LegGeometry#simplify(double)
+   */
+  public MultiLineString geometry(double tolerance) {
+    return merge(itineraries.stream().map(i -> i.geometry(tolerance)).toList());
+  }
+
+  /** The bounding box of all itineraries. */
+  public Envelope envelope() {
+    var envelope = new Envelope();
+    for (var itinerary : itineraries) {
+      envelope.expandToInclude(itinerary.envelope());
+    }
+    return envelope;
+  }
+
+  private static MultiLineString merge(List<MultiLineString> geometries) {
+    var lines =
+        new LineString[geometries.stream().mapToInt(MultiLineString::getNumGeometries).sum()];
+    var i = 0;
+    for (var geometry : geometries) {
+      for (int j = 0; j < geometry.getNumGeometries(); j++) {
+        lines[i++] = (LineString) geometry.getGeometryN(j);
+      }
+    }
+    return Geometries.factory(Geometries.DEFAULT_SRID).createMultiLineString(lines);
+  }
 }
@@ -0,0 +1,80 @@
+package org.opentripplanner.client.parameters;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The optional fields of the legs that a plan request fetches. Mode, start and end time, duration
+ * and whether a leg is interlined are always fetched, fields that aren't part of the profile are
+ * null, empty or 0 in the {@link org.opentripplanner.client.model.Leg}.
+ *
+ * <p>Leaving out fields that a caller doesn't need makes the response smaller and saves the server
+ * the work of computing them, especially for geometries and fare products. The query of each
+ * profile is compiled once and cached by the client.
+ */
+public final class ResponseProfile {
+
+  /** Only the fields that are always fetched, for example to compare travel times. */
+  public static final ResponseProfile MINIMAL = new ResponseProfile(EnumSet.noneOf(LegField.class));
+
+  /** Everything apart from the geometry of the legs. */
+  public static final ResponseProfile NO_GEOMETRY =
+      new ResponseProfile(EnumSet.complementOf(EnumSet.of(LegField.GEOMETRY)));
+
+  /** All fields, which is the default. */
+  public static final ResponseProfile FULL = new ResponseProfile(EnumSet.allOf(LegField.class));
+
+  private final Set<LegField> fields;
+
+  ResponseProfile(Set<LegField> fields) {
+    this.fields = Set.copyOf(fields);
+  }
+
+  public static ResponseProfileBuilder builder() {
+    return new ResponseProfileBuilder();
+  }
+
+  public Set<LegField> fields() {
+    return fields;
+  }
+
+  public boolean contains(LegField field) {
+    return fields.contains(field);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof ResponseProfile that && fields.equals(that.fields);
+  }
+
+  @Override
+  public int hashCode() {
+    return fields.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    if (this.equals(FULL)) {
+      return "FULL";
+    } else if (this.equals(NO_GEOMETRY)) {
+      return "NO_GEOMETRY";
+    } else if (this.equals(MINIMAL)) {
+      return "MINIMAL";
+    }
+    return EnumSet.copyOf(fields).toString();
+  }
+
+  /** The optional fields of a leg. */
+  public enum LegField {
+    /** The {@code from} and {@code to} places, including their stops. */
+    PLACES,
+    INTERMEDIATE_PLACES,
+    HEADSIGN,
+    ROUTE,
+    AGENCY,
+    TRIP,
+    GEOMETRY,
+    FARE_PRODUCTS,
+    ACCESSIBILITY_SCORE
+  }
+}
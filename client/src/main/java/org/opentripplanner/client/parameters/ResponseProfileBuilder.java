@@ -0,0 +1,29 @@
+package org.opentripplanner.client.parameters;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import org.opentripplanner.client.parameters.ResponseProfile.LegField;
+
+public class ResponseProfileBuilder {
+  private final Set<LegField> fields = EnumSet.noneOf(LegField.class);
+
+  public ResponseProfileBuilder withFields(LegField... fields) {
+    this.fields.addAll(Arrays.asList(fields));
+    return this;
+  }
+
+  public ResponseProfileBuilder withFields(Set<LegField> fields) {
+    this.fields.addAll(fields);
+    return this;
+  }
+
+  public ResponseProfileBuilder withoutFields(LegField... fields) {
+    Arrays.asList(fields).forEach(this.fields::remove);
+    return this;
+  }
+
+  public ResponseProfile build() {
+    return new ResponseProfile(fields);
+  }
+}
@@ -30,6 +30,7 @@ public final class TripPlanParameters {
   private final OptimizeType optimize;
   @Nullable private final InputTriangle triangle;
   @Nullable private final String pageCursor;
+  private final ResponseProfile responseProfile;
 
   public TripPlanParameters(
       PlaceParameter fromPlace,
@@ -48,7 +49,8 @@ public final class TripPlanParameters {
       @Nullable InputBanned banned,
       OptimizeType optimize,
       @Nullable InputTriangle triangle,
-      @Nullable String pageCursor) {
+      @Nullable String pageCursor,
+      ResponseProfile responseProfile) {
     this.fromPlace = Objects.requireNonNull(fromPlace);
     this.toPlace = Objects.requireNonNull(toPlace);
     this.time = Objects.requireNonNull(time);
@@ -66,6 +68,47 @@ public final class TripPlanParameters {
     this.optimize = optimize;
     this.triangle = triangle;
     this.pageCursor = pageCursor;
+    this.responseProfile = Objects.requireNonNull(responseProfile);
+  }
+
+  /** Parameters that fetch all leg fields, see {@link ResponseProfile#FULL}. */
+  public TripPlanParameters(
+      PlaceParameter fromPlace,
+      PlaceParameter toPlace,
+      LocalDateTime time,
+      int numItineraries,
+      Set<RequestMode> modes,
+      SearchDirection searchDirection,
+      @Nullable Duration searchWindow,
+      @Nullable Double walkReluctance,
+      @Nullable Double carReluctance,
+      @Nullable Double bikeReluctance,
+      @Nullable Double bikeWalkingReluctance,
+      @Nullable Double walkSpeed,
+      boolean wheelchair,
+      @Nullable InputBanned banned,
+      OptimizeType optimize,
+      @Nullable InputTriangle triangle,
+      @Nullable String pageCursor) {
+    this(
+        fromPlace,
+        toPlace,
+        time,
+        numItineraries,
+        modes,
+        searchDirection,
+        searchWindow,
+        walkReluctance,
+        carReluctance,
+        bikeReluctance,
+        bikeWalkingReluctance,
+        walkSpeed,
+        wheelchair,
+        banned,
+        optimize,
+        triangle,
+        pageCursor,
+        ResponseProfile.FULL);
   }
 
   public Optional<Duration> searchWindow() {
@@ -149,6 +192,11 @@ public final class TripPlanParameters {
     return Optional.ofNullable(pageCursor);
   }
 
+  /** The fields of the legs to fetch, by default all of them. */
+  public ResponseProfile responseProfile() {
+    return responseProfile;
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
@@ -167,6 +215,7 @@ public final class TripPlanParameters {
         .add("banned", banned)
         .add("optimize", optimize)
         .add("triangle", triangle)
+        .add("responseProfile", responseProfile)
         .toString();
   }
 }
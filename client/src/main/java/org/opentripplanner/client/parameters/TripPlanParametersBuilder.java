@@ -28,6 +28,7 @@ public class TripPlanParametersBuilder {
   private boolean wheelchair = false;
   private InputBanned banned;
   private String pageCursor;
+  private ResponseProfile responseProfile = ResponseProfile.FULL;
 
   public TripPlanParametersBuilder withFrom(PlaceParameter from) {
     this.fromPlace = from;
@@ -119,6 +120,11 @@ public class TripPlanParametersBuilder {
     return this;
   }
 
+  public TripPlanParametersBuilder withResponseProfile(ResponseProfile responseProfile) {
+    this.responseProfile = responseProfile;
+    return this;
+  }
+
   public TripPlanParametersBuilder copy() {
     return TripPlanParameters.builder()
         .withFrom(fromPlace)
@@ -135,7 +141,8 @@ public class TripPlanParametersBuilder {
         .withWheelchair(wheelchair)
         .withBanned(banned)
         .withOptimize(optimize)
-        .withTriangle(triangle);
+        .withTriangle(triangle)
+        .withResponseProfile(responseProfile);
   }
 
   public TripPlanParameters build() {
@@ -156,6 +163,7 @@ public class TripPlanParametersBuilder {
         banned,
         optimize,
         triangle,
-        pageCursor);
+        pageCursor,
+        responseProfile);
   }
 }
@@ -0,0 +1,142 @@
+package org.opentripplanner.client.query;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.opentripplanner.api.types.PlanResponseProjection;
+import org.opentripplanner.client.model.RequestMode;
+import org.opentripplanner.client.parameters.InputTriangle;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+
+/**
+ * Builds the parameterised GraphQL document for the {@code plan} query and the variables for a
+ * single request. Since all arguments are passed as variables the document doesn't depend on the
+ * request and can be compiled once.
+ */
+public final class PlanQuery {
+
+  /** The arguments of the plan query which are set by the client and their GraphQL types. */
+  private static final Map<String, String> ARGUMENTS = new LinkedHashMap<>();
+
+  static {
+    ARGUMENTS.put("fromPlace", "String");
+    ARGUMENTS.put("toPlace", "String");
+    ARGUMENTS.put("transportModes", "[TransportMode]");
+    ARGUMENTS.put("numItineraries", "Int");
+    ARGUMENTS.put("time", "String");
+    ARGUMENTS.put("date", "String");
+    ARGUMENTS.put("arriveBy", "Boolean");
+    ARGUMENTS.put("searchWindow", "Long");
+    ARGUMENTS.put("walkReluctance", "Float");
+    ARGUMENTS.put("carReluctance", "Float");
+    ARGUMENTS.put("bikeReluctance", "Float");
+    ARGUMENTS.put("bikeWalkingReluctance", "Float");
+    ARGUMENTS.put("wheelchair", "Boolean");
+    ARGUMENTS.put("optimize", "OptimizeType");
+    ARGUMENTS.put("triangle", "InputTriangle");
+    ARGUMENTS.put("pageCursor", "String");
+  }
+
+  private PlanQuery() {}
+
+  /** Compile the plan query document for the given projection. */
+  public static PreparedQuery compile(PlanResponseProjection projection) {
+    var declarations =
+        ARGUMENTS.entrySet().stream()
+            .map(e -> "$%s: %s".formatted(e.getKey(), e.getValue()))
+            .collect(Collectors.joining(", "));
+    var arguments =
+        ARGUMENTS.keySet().stream()
+            .map(name -> "%s: $%s".formatted(name, name))
+            .collect(Collectors.joining(", "));
+    return PreparedQuery.of(
+        "query plan(%s) { plan(%s) %s }".formatted(declarations, arguments, projection));
+  }
+
+  /**
+   * Compile a document which contains {@code size} plan queries, aliased as {@code p0}, {@code p1}
+   * and so on. The variables of each alias are prefixed with the alias, see {@link
+   * #batchVariables(List)}.
+   */
+  public static PreparedQuery compileBatch(PlanResponseProjection projection, int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Batch size must be at least 1 but was " + size);
+    }
+    var declarations = new ArrayList<String>();
+    var fields = new ArrayList<String>();
+    for (int i = 0; i < size; i++) {
+      var alias = alias(i);
+      ARGUMENTS.forEach(
+          (name, type) -> declarations.add("$%s_%s: %s".formatted(alias, name, type)));
+      var arguments =
+          ARGUMENTS.keySet().stream()
+              .map(name -> "%s: $%s_%s".formatted(name, alias, name))
+              .collect(Collectors.joining(", "));
+      fields.add("%s: plan(%s) %s".formatted(alias, arguments, projection));
+    }
+    return PreparedQuery.of(
+        "query planBatch(%s) { %s }"
+            .formatted(String.join(", ", declarations), String.join(" ", fields)));
+  }
+
+  /** The alias of the plan query at the given position of a batch. */
+  public static String alias(int index) {
+    return "p" + index;
+  }
+
+  /** Convert the parameters into the variables of a batch document. */
+  public static Map<String, Object> batchVariables(List<TripPlanParameters> requests) {
+    var vars = new LinkedHashMap<String, Object>();
+    for (int i = 0; i < requests.size(); i++) {
+      var alias = alias(i);
+      variables(requests.get(i)).forEach((name, value) -> vars.put(alias + "_" + name, value));
+    }
+    return vars;
+  }
+
+  /**
+   * Convert the parameters into the variables of the plan query. Absent values are left out, so
+   * that OTP applies its defaults.
+   */
+  public static Map<String, Object> variables(TripPlanParameters req) {
+    var vars = new LinkedHashMap<String, Object>();
+    vars.put("fromPlace", req.fromPlace().toPlaceString());
+    vars.put("toPlace", req.toPlace().toPlaceString());
+    vars.put("transportModes", req.modes().stream().map(PlanQuery::transportMode).toList());
+    vars.put("numItineraries", req.numItineraries());
+    vars.put("time", req.time().toLocalTime().truncatedTo(ChronoUnit.SECONDS).toString());
+    vars.put("date", req.time().toLocalDate().toString());
+    vars.put("arriveBy", req.searchDirection().isArriveBy());
+    req.searchWindow().map(Duration::toSeconds).ifPresent(v -> vars.put("searchWindow", v));
+    req.walkReluctance().ifPresent(v -> vars.put("walkReluctance", v));
+    req.carReluctance().ifPresent(v -> vars.put("carReluctance", v));
+    req.bikeReluctance().ifPresent(v -> vars.put("bikeReluctance", v));
+    req.bikeWalkingReluctance().ifPresent(v -> vars.put("bikeWalkingReluctance", v));
+    vars.put("wheelchair", req.wheelchair());
+    // TODO: implement banning
+    if (req.optimize() != null) {
+      vars.put("optimize", req.optimize().name());
+    }
+    req.triangle().map(PlanQuery::triangle).ifPresent(v -> vars.put("triangle", v));
+    req.pageCursor().ifPresent(v -> vars.put("pageCursor", v));
+    return vars;
+  }
+
+  private static Map<String, String> transportMode(RequestMode mode) {
+    return mode.qualifier == null
+        ? Map.of("mode", mode.mode)
+        : Map.of("mode", mode.mode, "qualifier", mode.qualifier);
+  }
+
+  private static Map<String, Double> triangle(InputTriangle triangle) {
+    var t = triangle.toGenegerated();
+    return Map.of(
+        "safetyFactor", t.getSafetyFactor(),
+        "slopeFactor", t.getSlopeFactor(),
+        "timeFactor", t.getTimeFactor());
+  }
+}
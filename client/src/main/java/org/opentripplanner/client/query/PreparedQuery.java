@@ -0,0 +1,72 @@
+package org.opentripplanner.client.query;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A GraphQL query document which is built once and then sent many times with different variables.
+ * The JSON encoding of the document is computed up front, so that sending a request only requires
+ * serializing the variables.
+ *
+ * <p>For <a href="https://www.apollographql.com/docs/apollo-server/performance/apq">automatic
+ * persisted queries</a> the SHA-256 hash of the document is computed up front as well.
+ */
+public final class PreparedQuery {
+
+  private final String document;
+  private final String sha256Hash;
+  private final String quotedDocument;
+  private final String persistedQueryExtension;
+
+  private PreparedQuery(String document) {
+    this.document = Objects.requireNonNull(document);
+    this.sha256Hash = Hashing.sha256().hashString(document, StandardCharsets.UTF_8).toString();
+    this.quotedDocument = new String(JsonStringEncoder.getInstance().quoteAsString(document));
+    this.persistedQueryExtension =
+        "\"extensions\":{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"%s\"}}"
+            .formatted(sha256Hash);
+  }
+
+  public static PreparedQuery of(String document) {
+    return new PreparedQuery(document);
+  }
+
+  /** The GraphQL query document. */
+  public String document() {
+    return document;
+  }
+
+  /** The hex-encoded SHA-256 hash of the document, which identifies it as a persisted query. */
+  public String sha256Hash() {
+    return sha256Hash;
+  }
+
+  /**
+   * Build the HTTP JSON body for this query.
+   *
+   * @param variablesJson the variables, already serialized as a JSON object
+   */
+  public String toHttpJsonBody(String variablesJson) {
+    return "{\"query\":\"" + quotedDocument + "\",\"variables\":" + variablesJson + "}";
+  }
+
+  /**
+   * Build the HTTP JSON body for this query as a persisted query, which identifies the document by
+   * its hash.
+   *
+   * @param variablesJson the variables, already serialized as a JSON object
+   * @param includeDocument whether to send the document as well, so that the server can register it
+   *     after it reported the hash as unknown
+   */
+  public String toPersistedHttpJsonBody(String variablesJson, boolean includeDocument) {
+    var query = includeDocument ? "\"query\":\"" + quotedDocument + "\"," : "";
+    return "{" + query + "\"variables\":" + variablesJson + "," + persistedQueryExtension + "}";
+  }
+
+  @Override
+  public String toString() {
+    return document;
+  }
+}
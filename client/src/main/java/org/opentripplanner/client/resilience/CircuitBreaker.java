@@ -0,0 +1,126 @@
+package org.opentripplanner.client.resilience;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Stops sending requests to a backend which is failing, so that it can recover, and fails them fast
+ * instead.
+ *
+ * <p>The breaker opens once the share of failures among the most recent requests exceeds the
+ * threshold. After the open duration it lets a few trial requests through: if all of them succeed
+ * it closes again, if one fails it opens again.
+ */
+public final class CircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final CircuitBreakerPolicy policy;
+  private final Ticker ticker;
+  private final boolean[] window;
+  private int windowIndex;
+  private int windowCount;
+  private int windowFailures;
+  private State state = State.CLOSED;
+  private long openedAt;
+  private int trialsStarted;
+  private int trialsSucceeded;
+
+  public CircuitBreaker(CircuitBreakerPolicy policy) {
+    this(policy, Ticker.systemTicker());
+  }
+
+  CircuitBreaker(CircuitBreakerPolicy policy, Ticker ticker) {
+    this.policy = policy;
+    this.ticker = ticker;
+    this.window = new boolean[policy.windowSize()];
+  }
+
+  public synchronized State state() {
+    updateState();
+    return state;
+  }
+
+  /** Throw if the breaker doesn't let a request through right now. */
+  public synchronized void acquirePermission() throws RequestRejectedException {
+    updateState();
+    switch (state) {
+      case CLOSED -> {}
+      case OPEN -> throw new RequestRejectedException("Circuit breaker is open");
+      case HALF_OPEN -> {
+        if (trialsStarted >= policy.halfOpenRequests()) {
+          throw new RequestRejectedException("Circuit breaker is half-open");
+        }
+        trialsStarted++;
+      }
+    }
+  }
+
+  public synchronized void onSuccess() {
+    switch (state) {
+      case CLOSED -> record(false);
+      case HALF_OPEN -> {
+        if (++trialsSucceeded >= policy.halfOpenRequests()) {
+          state = State.CLOSED;
+          windowIndex = windowCount = windowFailures = 0;
+        }
+      }
+      case OPEN -> {}
+    }
+  }
+
+  public synchronized void onFailure() {
+    switch (state) {
+      case CLOSED -> {
+        record(true);
+        if (windowCount >= policy.minimumRequests()
+            && windowFailures >= policy.failureRateThreshold() * windowCount) {
+          open();
+        }
+      }
+      case HALF_OPEN -> open();
+      case OPEN -> {}
+    }
+  }
+
+  /**
+   * The request neither succeeded nor showed that the backend is failing, for example because it
+   * was cancelled or the response couldn't be parsed. A trial request gives its slot back without
+   * changing the state.
+   */
+  public synchronized void onIgnored() {
+    if (state == State.HALF_OPEN && trialsStarted > 0) {
+      trialsStarted--;
+    }
+  }
+
+  private void record(boolean failure) {
+    if (windowCount == window.length) {
+      if (window[windowIndex]) {
+        windowFailures--;
+      }
+    } else {
+      windowCount++;
+    }
+    window[windowIndex] = failure;
+    if (failure) {
+      windowFailures++;
+    }
+    windowIndex = (windowIndex + 1) % window.length;
+  }
+
+  private void open() {
+    state = State.OPEN;
+    openedAt = ticker.read();
+  }
+
+  private void updateState() {
+    if (state == State.OPEN && ticker.read() - openedAt >= policy.openDuration().toNanos()) {
+      state = State.HALF_OPEN;
+      trialsStarted = trialsSucceeded = 0;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package org.opentripplanner.client.resilience;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Configuration of a {@link CircuitBreaker}.
+ *
+ * @param failureRateThreshold the share of failed requests, between 0 and 1, at which the breaker
+ *     opens
+ * @param windowSize the number of most recent requests over which the failure rate is computed
+ * @param minimumRequests the number of requests in the window before the breaker may open
+ * @param openDuration how long the breaker stays open before it lets trial requests through
+ * @param halfOpenRequests the number of trial requests which must succeed to close the breaker
+ */
+public record CircuitBreakerPolicy(
+    double failureRateThreshold,
+    int windowSize,
+    int minimumRequests,
+    Duration openDuration,
+    int halfOpenRequests) {
+
+  public CircuitBreakerPolicy {
+    if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+      throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]");
+    }
+    if (windowSize < 1 || minimumRequests < 1 || minimumRequests > windowSize) {
+      throw new IllegalArgumentException("Must satisfy 1 <= minimumRequests <= windowSize");
+    }
+    Objects.requireNonNull(openDuration);
+    if (halfOpenRequests < 1) {
+      throw new IllegalArgumentException("halfOpenRequests must be at least 1");
+    }
+  }
+
+  public static CircuitBreakerPolicyBuilder builder() {
+    return new CircuitBreakerPolicyBuilder();
+  }
+}
@@ -0,0 +1,37 @@
+package org.opentripplanner.client.resilience;
+
+import java.time.Duration;
+
+public class CircuitBreakerPolicyBuilder {
+  private double failureRateThreshold = 0.5;
+  private int windowSize = 50;
+  private int minimumRequests = 10;
+  private Duration openDuration = Duration.ofSeconds(30);
+  private int halfOpenRequests = 3;
+
+  public CircuitBreakerPolicyBuilder withFailureRateThreshold(double failureRateThreshold) {
+    this.failureRateThreshold = failureRateThreshold;
+    return this;
+  }
+
+  public CircuitBreakerPolicyBuilder withWindow(int windowSize, int minimumRequests) {
+    this.windowSize = windowSize;
+    this.minimumRequests = minimumRequests;
+    return this;
+  }
+
+  public CircuitBreakerPolicyBuilder withOpenDuration(Duration openDuration) {
+    this.openDuration = openDuration;
+    return this;
+  }
+
+  public CircuitBreakerPolicyBuilder withHalfOpenRequests(int halfOpenRequests) {
+    this.halfOpenRequests = halfOpenRequests;
+    return this;
+  }
+
+  public CircuitBreakerPolicy build() {
+    return new CircuitBreakerPolicy(
+        failureRateThreshold, windowSize, minimumRequests, openDuration, halfOpenRequests);
+  }
+}
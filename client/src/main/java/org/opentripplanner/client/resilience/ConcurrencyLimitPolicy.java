@@ -0,0 +1,46 @@
+package org.opentripplanner.client.resilience;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Configuration of a {@link ConcurrencyLimiter}.
+ *
+ * @param initialLimit the number of concurrent requests allowed at the start
+ * @param minLimit the lower bound of the limit
+ * @param maxLimit the upper bound of the limit
+ * @param latencyThreshold responses slower than this count as a sign of overload
+ * @param backoffRatio the factor by which the limit is multiplied when overload is detected
+ * @param maxQueueSize how many requests may wait for a slot, 0 to reject the excess immediately
+ * @param maxQueueWait how long a request may wait for a slot
+ */
+public record ConcurrencyLimitPolicy(
+    int initialLimit,
+    int minLimit,
+    int maxLimit,
+    Duration latencyThreshold,
+    double backoffRatio,
+    int maxQueueSize,
+    Duration maxQueueWait) {
+
+  public ConcurrencyLimitPolicy {
+    if (minLimit < 1 || maxLimit < minLimit) {
+      throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+    }
+    if (initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+    }
+    Objects.requireNonNull(latencyThreshold);
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+    }
+    if (maxQueueSize < 0) {
+      throw new IllegalArgumentException("maxQueueSize must not be negative");
+    }
+    Objects.requireNonNull(maxQueueWait);
+  }
+
+  public static ConcurrencyLimitPolicyBuilder builder() {
+    return new ConcurrencyLimitPolicyBuilder();
+  }
+}
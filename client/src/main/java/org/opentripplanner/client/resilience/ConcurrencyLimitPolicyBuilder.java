@@ -0,0 +1,51 @@
+package org.opentripplanner.client.resilience;
+
+import java.time.Duration;
+
+public class ConcurrencyLimitPolicyBuilder {
+  private int initialLimit = 10;
+  private int minLimit = 1;
+  private int maxLimit = 200;
+  private Duration latencyThreshold = Duration.ofSeconds(2);
+  private double backoffRatio = 0.9;
+  private int maxQueueSize = 100;
+  private Duration maxQueueWait = Duration.ofSeconds(1);
+
+  public ConcurrencyLimitPolicyBuilder withLimits(int initial, int min, int max) {
+    this.initialLimit = initial;
+    this.minLimit = min;
+    this.maxLimit = max;
+    return this;
+  }
+
+  public ConcurrencyLimitPolicyBuilder withLatencyThreshold(Duration latencyThreshold) {
+    this.latencyThreshold = latencyThreshold;
+    return this;
+  }
+
+  public ConcurrencyLimitPolicyBuilder withBackoffRatio(double backoffRatio) {
+    this.backoffRatio = backoffRatio;
+    return this;
+  }
+
+  /**
+   * Let up to {@code maxQueueSize} requests wait at most {@code maxQueueWait} for a slot. Requests
+   * beyond that are rejected with a {@link RequestRejectedException}.
+   */
+  public ConcurrencyLimitPolicyBuilder withQueue(int maxQueueSize, Duration maxQueueWait) {
+    this.maxQueueSize = maxQueueSize;
+    this.maxQueueWait = maxQueueWait;
+    return this;
+  }
+
+  public ConcurrencyLimitPolicy build() {
+    return new ConcurrencyLimitPolicy(
+        initialLimit,
+        minLimit,
+        maxLimit,
+        latencyThreshold,
+        backoffRatio,
+        maxQueueSize,
+        maxQueueWait);
+  }
+}
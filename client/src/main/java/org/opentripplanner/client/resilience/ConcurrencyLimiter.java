@@ -0,0 +1,130 @@
+package org.opentripplanner.client.resilience;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the number of concurrent requests with a limit that adapts to the backend: the limit grows
+ * additively while responses are fast and shrinks multiplicatively (AIMD) on timeouts, overload
+ * responses or slow responses. Requests above the limit wait in a bounded queue or are rejected.
+ */
+public final class ConcurrencyLimiter {
+
+  private final ConcurrencyLimitPolicy policy;
+  private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+  private double limit;
+  private int inFlight;
+
+  public ConcurrencyLimiter(ConcurrencyLimitPolicy policy) {
+    this.policy = policy;
+    this.limit = policy.initialLimit();
+  }
+
+  /** The current limit. */
+  public synchronized int limit() {
+    return (int) limit;
+  }
+
+  public synchronized int inFlight() {
+    return inFlight;
+  }
+
+  public synchronized int queued() {
+    return waiters.size();
+  }
+
+  /** Whether a request would be rejected right now because the limit and the queue are full. */
+  public synchronized boolean isSaturated() {
+    return inFlight >= (int) limit && waiters.size() >= policy.maxQueueSize();
+  }
+
+  /**
+   * Acquire a slot. The future completes immediately if the limit isn't reached, when a slot
+   * becomes free while waiting in the queue, or exceptionally with a {@link
+   * RequestRejectedException} if the queue is full or the wait times out.
+   */
+  public CompletableFuture<Permit> acquire() {
+    var waiter = new CompletableFuture<Permit>();
+    synchronized (this) {
+      if (inFlight < (int) limit && waiters.isEmpty()) {
+        inFlight++;
+        return CompletableFuture.completedFuture(new Permit());
+      }
+      if (waiters.size() >= policy.maxQueueSize()) {
+        return CompletableFuture.failedFuture(
+            new RequestRejectedException("Concurrency limit of %d reached".formatted((int) limit)));
+      }
+      waiters.add(waiter);
+    }
+    CompletableFuture.delayedExecutor(policy.maxQueueWait().toNanos(), TimeUnit.NANOSECONDS)
+        .execute(
+            () -> {
+              synchronized (this) {
+                waiters.remove(waiter);
+              }
+              waiter.completeExceptionally(
+                  new RequestRejectedException("Timed out waiting for a concurrency slot"));
+            });
+    return waiter;
+  }
+
+  private void release(Boolean success) {
+    var granted = new ArrayList<CompletableFuture<Permit>>();
+    synchronized (this) {
+      inFlight--;
+      if (Boolean.TRUE.equals(success)) {
+        // only grow while the limit is actually used, otherwise it grows without bound when idle
+        if (inFlight * 2 >= limit) {
+          limit = Math.min(policy.maxLimit(), limit + 1 / limit);
+        }
+      } else if (Boolean.FALSE.equals(success)) {
+        limit = Math.max(policy.minLimit(), limit * policy.backoffRatio());
+      }
+      while (inFlight < (int) limit && !waiters.isEmpty()) {
+        inFlight++;
+        granted.add(waiters.poll());
+      }
+    }
+    for (var waiter : granted) {
+      var permit = new Permit();
+      if (!waiter.complete(permit)) {
+        // the waiter timed out just now
+        permit.ignore();
+      }
+    }
+  }
+
+  /** A slot for one request, which must be released exactly once. */
+  public final class Permit {
+
+    private final long start = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit() {}
+
+    /** The request succeeded. Slow successes count as a sign of overload. */
+    public void onSuccess() {
+      var fast = System.nanoTime() - start <= policy.latencyThreshold().toNanos();
+      releaseOnce(fast);
+    }
+
+    /** The request timed out or the backend reported overload. */
+    public void onDropped() {
+      releaseOnce(false);
+    }
+
+    /** The request didn't tell anything about the load of the backend. */
+    public void ignore() {
+      releaseOnce(null);
+    }
+
+    private void releaseOnce(Boolean success) {
+      if (released.compareAndSet(false, true)) {
+        release(success);
+      }
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package org.opentripplanner.client.resilience;
+
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import org.opentripplanner.client.HttpStatusException;
+import org.opentripplanner.client.resilience.ConcurrencyLimiter.Permit;
+
+/**
+ * Protects one backend with an optional {@link ConcurrencyLimiter} and {@link CircuitBreaker}.
+ *
+ * <p>Timeouts, connection errors and server error statuses count as failures and a response that
+ * was read successfully as a success. Anything else, for example GraphQL errors, a response that
+ * can't be parsed or a cancelled request, doesn't tell whether the backend is healthy and only
+ * releases the slot of the request.
+ */
+public final class EndpointGuard {
+
+  /** Client error statuses that the backend uses to report overload. */
+  private static final Set<Integer> OVERLOAD_STATUS_CODES = Set.of(408, 429);
+
+  @Nullable private final ConcurrencyLimiter limiter;
+  @Nullable private final CircuitBreaker breaker;
+
+  public EndpointGuard(
+      @Nullable ConcurrencyLimitPolicy limitPolicy, @Nullable CircuitBreakerPolicy breakerPolicy) {
+    this.limiter = limitPolicy == null ? null : new ConcurrencyLimiter(limitPolicy);
+    this.breaker = breakerPolicy == null ? null : new CircuitBreaker(breakerPolicy);
+  }
+
+  public Optional<ConcurrencyLimiter> limiter() {
+    return Optional.ofNullable(limiter);
+  }
+
+  public Optional<CircuitBreaker> circuitBreaker() {
+    return Optional.ofNullable(breaker);
+  }
+
+  public <T> T execute(Retrier.Attempt<T> attempt) throws IOException {
+    var permit = limiter == null ? null : await(limiter.acquire());
+    acquireBreaker(permit);
+    try {
+      T result = attempt.call();
+      onComplete(permit, null);
+      return result;
+    } catch (IOException | RuntimeException e) {
+      // a hedged request that lost is interrupted, which says nothing about the backend
+      onComplete(permit, Thread.currentThread().isInterrupted() ? new CancellationException() : e);
+      throw e;
+    }
+  }
+
+  public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> attempt) {
+    var permitFuture =
+        limiter == null ? CompletableFuture.<Permit>completedFuture(null) : limiter.acquire();
+    return Futures.thenCompose(
+        permitFuture,
+        permit -> {
+          try {
+            acquireBreaker(permit);
+          } catch (RequestRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+          }
+          return Futures.whenComplete(attempt.get(), (value, e) -> onComplete(permit, e));
+        });
+  }
+
+  private void acquireBreaker(@Nullable Permit permit) throws RequestRejectedException {
+    if (breaker == null) {
+      return;
+    }
+    try {
+      breaker.acquirePermission();
+    } catch (RequestRejectedException e) {
+      if (permit != null) {
+        permit.ignore();
+      }
+      throw e;
+    }
+  }
+
+  private void onComplete(@Nullable Permit permit, @Nullable Throwable e) {
+    if (e == null) {
+      if (permit != null) {
+        permit.onSuccess();
+      }
+      if (breaker != null) {
+        breaker.onSuccess();
+      }
+    } else if (isFailure(e)) {
+      if (permit != null) {
+        permit.onDropped();
+      }
+      if (breaker != null) {
+        breaker.onFailure();
+      }
+    } else {
+      if (permit != null) {
+        permit.ignore();
+      }
+      if (breaker != null) {
+        breaker.onIgnored();
+      }
+    }
+  }
+
+  /**
+   * Whether the failure says that the backend is unhealthy. This is wider than {@link
+   * Retrier#isTransient}: a backend that answers every request with a 500 is not worth retrying,
+   * but it certainly isn't healthy.
+   */
+  public static boolean isFailure(@Nullable Throwable e) {
+    var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    if (cause instanceof HttpStatusException status) {
+      return status.statusCode() >= 500 || OVERLOAD_STATUS_CODES.contains(status.statusCode());
+    }
+    return cause instanceof IOException io && Retrier.isTransient(io);
+  }
+
+  private static Permit await(CompletableFuture<Permit> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      // a slot that is granted after we gave up would otherwise never be released
+      if (!future.cancel(false) && !future.isCompletedExceptionally()) {
+        future.join().ignore();
+      }
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a concurrency slot");
+    } catch (ExecutionException e) {
+      throw (IOException) e.getCause();
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package org.opentripplanner.client.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Variants of the {@link CompletableFuture} combinators which pass a cancellation of the returned
+ * future on to the futures it depends on, so that cancelling a hedged request that lost reaches the
+ * HTTP exchange and releases the slots it holds.
+ */
+public final class Futures {
+
+  private Futures() {}
+
+  /** Like {@link CompletableFuture#thenCompose}, but cancelling the result cancels both stages. */
+  public static <A, B> CompletableFuture<B> thenCompose(
+      CompletableFuture<A> first, Function<? super A, CompletableFuture<B>> next) {
+    var result = new CompletableFuture<B>();
+    var second = new AtomicReference<CompletableFuture<B>>();
+    first.whenComplete(
+        (value, e) -> {
+          if (e != null) {
+            result.completeExceptionally(e);
+            return;
+          }
+          CompletableFuture<B> future;
+          try {
+            future = next.apply(value);
+          } catch (RuntimeException | Error applyFailed) {
+            result.completeExceptionally(applyFailed);
+            return;
+          }
+          second.set(future);
+          if (result.isCancelled()) {
+            future.cancel(false);
+          }
+          future.whenComplete(
+              (v, error) -> {
+                if (error != null) {
+                  result.completeExceptionally(error);
+                } else {
+                  result.complete(v);
+                }
+              });
+        });
+    result.whenComplete(
+        (value, e) -> {
+          if (result.isCancelled()) {
+            first.cancel(false);
+            var future = second.get();
+            if (future != null) {
+              future.cancel(false);
+            }
+          }
+        });
+    return result;
+  }
+
+  /**
+   * Like {@link CompletableFuture#whenComplete}, but cancelling the result cancels the source. The
+   * action also runs when the result was cancelled, which the JDK variant skips.
+   */
+  public static <T> CompletableFuture<T> whenComplete(
+      CompletableFuture<T> future, BiConsumer<? super T, ? super Throwable> action) {
+    var result = new CompletableFuture<T>();
+    future.whenComplete(
+        (value, e) -> {
+          try {
+            action.accept(value, e);
+          } catch (RuntimeException | Error actionFailed) {
+            if (e == null) {
+              result.completeExceptionally(actionFailed);
+              return;
+            }
+          }
+          if (e != null) {
+            result.completeExceptionally(e);
+          } else {
+            result.complete(value);
+          }
+        });
+    result.whenComplete(
+        (value, e) -> {
+          if (result.isCancelled()) {
+            future.cancel(false);
+          }
+        });
+    return result;
+  }
+}
@@ -0,0 +1,88 @@
+package org.opentripplanner.client.resilience;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket which refills at a fixed rate up to a burst size.
+ *
+ * <p>The bucket is implemented as the generic cell rate algorithm: instead of a token count it
+ * stores the time at which the bucket would be full again, in a single {@link AtomicLong}. Taking a
+ * token is one compare-and-set, so concurrent callers never block each other. A limiter can be
+ * shared by several clients to enforce a common quota.
+ */
+public final class RateLimiter {
+
+  private final long intervalNanos;
+  private final long toleranceNanos;
+  private final Ticker ticker;
+  private final AtomicLong theoreticalArrival;
+
+  private RateLimiter(double permitsPerSecond, int burst, Ticker ticker) {
+    if (permitsPerSecond <= 0) {
+      throw new IllegalArgumentException("permitsPerSecond must be positive");
+    }
+    if (burst < 1) {
+      throw new IllegalArgumentException("burst must be at least 1");
+    }
+    this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+    this.toleranceNanos = (burst - 1) * intervalNanos;
+    this.ticker = ticker;
+    this.theoreticalArrival = new AtomicLong(ticker.read() - toleranceNanos);
+  }
+
+  /**
+   * Create a limiter which allows {@code permitsPerSecond} on average and up to {@code burst}
+   * requests at once after a quiet period.
+   */
+  public static RateLimiter of(double permitsPerSecond, int burst) {
+    return new RateLimiter(permitsPerSecond, burst, Ticker.systemTicker());
+  }
+
+  static RateLimiter of(double permitsPerSecond, int burst, Ticker ticker) {
+    return new RateLimiter(permitsPerSecond, burst, ticker);
+  }
+
+  /** Take a token if one is available right now. */
+  public boolean tryAcquire() {
+    while (true) {
+      var now = ticker.read();
+      var tat = theoreticalArrival.get();
+      if (tat - now > toleranceNanos) {
+        return false;
+      }
+      if (theoreticalArrival.compareAndSet(tat, Math.max(tat, now) + intervalNanos)) {
+        return true;
+      }
+    }
+  }
+
+  /** Take a token, waiting until one is available. */
+  public void acquire() throws InterruptedException {
+    TimeUnit.NANOSECONDS.sleep(reserve());
+  }
+
+  /** Take a token; the future completes once it is available. */
+  public CompletableFuture<Void> acquireAsync() {
+    var wait = reserve();
+    if (wait <= 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.runAsync(
+        () -> {}, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS));
+  }
+
+  /** Reserve the next token and return how long to wait for it in nanoseconds. */
+  private long reserve() {
+    while (true) {
+      var now = ticker.read();
+      var tat = theoreticalArrival.get();
+      var start = Math.max(tat, now);
+      if (theoreticalArrival.compareAndSet(tat, start + intervalNanos)) {
+        return Math.max(0, start - toleranceNanos - now);
+      }
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package org.opentripplanner.client.resilience;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.opentripplanner.client.Operation;
+
+/**
+ * Assigns a {@link RateLimiter} to each {@link Operation}. Several operations can share one
+ * limiter, for example all reference data queries.
+ */
+public final class RateLimits {
+
+  private final Map<Operation, RateLimiter> limiters;
+  private final boolean failFast;
+
+  RateLimits(Map<Operation, RateLimiter> limiters, boolean failFast) {
+    this.limiters = new EnumMap<>(limiters);
+    this.failFast = failFast;
+  }
+
+  public static RateLimitsBuilder builder() {
+    return new RateLimitsBuilder();
+  }
+
+  public Optional<RateLimiter> limiter(Operation operation) {
+    return Optional.ofNullable(limiters.get(operation));
+  }
+
+  /**
+   * Take a token for a blocking call: wait for it, or with fail-fast throw a {@link
+   * RequestRejectedException} if there is none.
+   */
+  public void acquire(Operation operation) throws IOException {
+    var limiter = limiters.get(operation);
+    if (limiter == null) {
+      return;
+    }
+    if (failFast) {
+      if (!limiter.tryAcquire()) {
+        throw new RequestRejectedException(
+            "Rate limit for %s exceeded".formatted(operation.methodName()));
+      }
+      return;
+    }
+    try {
+      limiter.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the rate limiter");
+    }
+  }
+
+  /** Take a token for a non-blocking call, which never blocks a thread while waiting. */
+  public CompletableFuture<Void> acquireAsync(Operation operation) {
+    var limiter = limiters.get(operation);
+    if (limiter == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    if (failFast) {
+      return limiter.tryAcquire()
+          ? CompletableFuture.completedFuture(null)
+          : CompletableFuture.failedFuture(
+              new RequestRejectedException(
+                  "Rate limit for %s exceeded".formatted(operation.methodName())));
+    }
+    return limiter.acquireAsync();
+  }
+}
@@ -0,0 +1,30 @@
+package org.opentripplanner.client.resilience;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import org.opentripplanner.client.Operation;
+
+public class RateLimitsBuilder {
+  private final Map<Operation, RateLimiter> limiters = new EnumMap<>(Operation.class);
+  private boolean failFast = false;
+
+  /** Limit the operations with one shared limiter. */
+  public RateLimitsBuilder withLimit(RateLimiter limiter, Collection<Operation> operations) {
+    operations.forEach(o -> limiters.put(o, limiter));
+    return this;
+  }
+
+  /**
+   * Reject blocking and non-blocking requests above the limit with a {@link
+   * RequestRejectedException} instead of waiting for a token.
+   */
+  public RateLimitsBuilder withFailFast(boolean failFast) {
+    this.failFast = failFast;
+    return this;
+  }
+
+  public RateLimits build() {
+    return new RateLimits(limiters, failFast);
+  }
+}
@@ -0,0 +1,16 @@
+package org.opentripplanner.client.resilience;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the client doesn't send a request, because the circuit breaker is open, the
+ * concurrency limit has been reached, or the client's own rate limit for the operation is exhausted
+ * and the {@link RateLimitsBuilder#withFailFast(boolean) rate limits fail fast} instead of waiting.
+ * The server never saw the request, so it can be retried later.
+ */
+public class RequestRejectedException extends IOException {
+
+  public RequestRejectedException(String message) {
+    super(message);
+  }
+}
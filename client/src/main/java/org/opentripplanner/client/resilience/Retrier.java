@@ -0,0 +1,280 @@
+package org.opentripplanner.client.resilience;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import org.opentripplanner.client.GraphQLException;
+import org.opentripplanner.client.HttpStatusException;
+
+/**
+ * Executes HTTP exchanges according to a {@link RetryPolicy}: transient failures are retried with
+ * exponential backoff and jitter, and slow attempts are optionally hedged with a duplicate. Retries
+ * and hedges draw from a shared budget.
+ *
+ * <p>Only the exchange itself is repeated, which is safe because all queries of the client are
+ * idempotent.
+ */
+public final class Retrier {
+
+  /** Status codes after which the same request may well succeed. */
+  private static final Set<Integer> RETRYABLE_STATUS_CODES = Set.of(408, 429, 502, 503, 504);
+
+  @FunctionalInterface
+  public interface Attempt<T> {
+    T call() throws IOException;
+  }
+
+  private final RetryPolicy policy;
+  private final RetryBudget budget;
+  private final LongAdder attempts = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder hedges = new LongAdder();
+  private final LongAdder hedgesWon = new LongAdder();
+  private final LongAdder budgetExhausted = new LongAdder();
+
+  public Retrier(RetryPolicy policy) {
+    this.policy = policy;
+    this.budget = new RetryBudget(policy.budgetRatio(), policy.budgetBurst());
+  }
+
+  public RetryStats stats() {
+    return new RetryStats(
+        attempts.sum(), retries.sum(), hedges.sum(), hedgesWon.sum(), budgetExhausted.sum());
+  }
+
+  /** Execute a blocking exchange. */
+  public <T> T execute(Attempt<T> attempt) throws IOException {
+    budget.deposit();
+    for (int n = 1; ; n++) {
+      try {
+        if (policy.hedgeDelay() == null) {
+          attempts.increment();
+          return attempt.call();
+        }
+        return await(hedged(() -> startInterruptible(attempt)));
+      } catch (IOException e) {
+        if (!shouldRetry(e, n)) {
+          throw e;
+        }
+        sleep(n);
+      }
+    }
+  }
+
+  /** Execute a non-blocking exchange. */
+  public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> attempt) {
+    budget.deposit();
+    var result = new CompletableFuture<T>();
+    executeAsync(attempt, 1, result);
+    return result;
+  }
+
+  private <T> void executeAsync(
+      Supplier<CompletableFuture<T>> attempt, int n, CompletableFuture<T> result) {
+    CompletableFuture<T> future;
+    if (policy.hedgeDelay() == null) {
+      attempts.increment();
+      future = attempt.get();
+    } else {
+      future = hedged(attempt);
+    }
+    future.whenComplete(
+        (value, e) -> {
+          if (e == null) {
+            result.complete(value);
+            return;
+          }
+          var cause = unwrap(e);
+          if (cause instanceof IOException io && shouldRetry(io, n)) {
+            CompletableFuture.delayedExecutor(jitter(n), TimeUnit.NANOSECONDS)
+                .execute(() -> executeAsync(attempt, n + 1, result));
+          } else {
+            result.completeExceptionally(cause);
+          }
+        });
+  }
+
+  /**
+   * Start an attempt and, if it hasn't completed after the hedge delay, a duplicate. The first
+   * success wins and the other attempt is cancelled, so that it doesn't keep loading the backend;
+   * the result only fails once all attempts that were started have failed.
+   */
+  private <T> CompletableFuture<T> hedged(Supplier<CompletableFuture<T>> attempt) {
+    var result = new CompletableFuture<T>();
+    var outstanding = new AtomicInteger(1);
+    var failure = new AtomicReference<Throwable>();
+    var started = new ConcurrentLinkedQueue<CompletableFuture<T>>();
+    attempts.increment();
+    startAttempt(attempt, started, result)
+        .whenComplete(onAttemptComplete(result, outstanding, failure, false));
+    CompletableFuture.delayedExecutor(policy.hedgeDelay().toNanos(), TimeUnit.NANOSECONDS)
+        .execute(
+            () -> {
+              if (result.isDone()) {
+                return;
+              }
+              // don't hedge an attempt that has failed in the meantime
+              if (outstanding.getAndUpdate(o -> o == 0 ? 0 : o + 1) == 0) {
+                return;
+              }
+              if (!budget.tryWithdraw()) {
+                budgetExhausted.increment();
+                // the primary may have failed in the meantime and left reporting it to us
+                if (outstanding.decrementAndGet() == 0) {
+                  result.completeExceptionally(failure.get());
+                }
+                return;
+              }
+              hedges.increment();
+              attempts.increment();
+              startAttempt(attempt, started, result)
+                  .whenComplete(onAttemptComplete(result, outstanding, failure, true));
+            });
+    // the losing attempts are cancelled before the caller sees the result
+    return Futures.whenComplete(result, (value, e) -> started.forEach(f -> f.cancel(false)));
+  }
+
+  private static <T> CompletableFuture<T> startAttempt(
+      Supplier<CompletableFuture<T>> attempt,
+      Queue<CompletableFuture<T>> started,
+      CompletableFuture<T> result) {
+    var future = attempt.get();
+    started.add(future);
+    // the result may have completed before the attempt was registered
+    if (result.isDone()) {
+      future.cancel(false);
+    }
+    return future;
+  }
+
+  /**
+   * Run a blocking attempt on its own virtual thread, which is interrupted when the future is
+   * cancelled. Interrupting a virtual thread aborts its blocking socket I/O.
+   */
+  private static <T> CompletableFuture<T> startInterruptible(Attempt<T> attempt) {
+    var future = new CompletableFuture<T>();
+    var thread =
+        Thread.ofVirtual()
+            .name("otp-hedged-request")
+            .unstarted(
+                () -> {
+                  try {
+                    future.complete(attempt.call());
+                  } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                  }
+                });
+    future.whenComplete(
+        (value, e) -> {
+          if (future.isCancelled()) {
+            thread.interrupt();
+          }
+        });
+    thread.start();
+    return future;
+  }
+
+  private <T> BiConsumer<T, Throwable> onAttemptComplete(
+      CompletableFuture<T> result,
+      AtomicInteger outstanding,
+      AtomicReference<Throwable> failure,
+      boolean hedge) {
+    return (value, e) -> {
+      if (e == null) {
+        // count before completing, so that callers see the counter once they see the result
+        if (hedge && !result.isDone()) {
+          hedgesWon.increment();
+          if (!result.complete(value)) {
+            hedgesWon.decrement();
+          }
+        } else {
+          result.complete(value);
+        }
+      } else {
+        failure.set(unwrap(e));
+        if (outstanding.decrementAndGet() == 0) {
+          result.completeExceptionally(unwrap(e));
+        }
+      }
+    };
+  }
+
+  private boolean shouldRetry(IOException e, int attempt) {
+    if (attempt >= policy.maxAttempts() || !isTransient(e)) {
+      return false;
+    }
+    if (!budget.tryWithdraw()) {
+      budgetExhausted.increment();
+      return false;
+    }
+    retries.increment();
+    return true;
+  }
+
+  /** Whether the failure is likely to go away when the request is repeated. */
+  public static boolean isTransient(IOException e) {
+    if (e instanceof HttpStatusException status) {
+      return RETRYABLE_STATUS_CODES.contains(status.statusCode());
+    }
+    // timeouts are subclasses of InterruptedIOException, but a real interruption must not retry
+    if (e.getClass() == InterruptedIOException.class) {
+      return false;
+    }
+    return !(e instanceof GraphQLException
+        || e instanceof JsonProcessingException
+        || e instanceof RequestRejectedException);
+  }
+
+  private long jitter(int retry) {
+    var bound = policy.backoff(retry).toNanos();
+    return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+  }
+
+  private void sleep(int retry) throws InterruptedIOException {
+    try {
+      TimeUnit.NANOSECONDS.sleep(jitter(retry));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry");
+    }
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+  }
+
+  private static <T> T await(CompletableFuture<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(false);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a hedged request");
+    } catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof IOException io) {
+        throw io;
+      }
+      if (cause instanceof RuntimeException r) {
+        throw r;
+      }
+      if (cause instanceof Error err) {
+        throw err;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
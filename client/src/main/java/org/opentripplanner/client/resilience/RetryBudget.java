@@ -0,0 +1,39 @@
+package org.opentripplanner.client.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that is filled by requests and drained by retries, so that retries stay a small
+ * fraction of the traffic even when every request fails.
+ */
+final class RetryBudget {
+
+  /** Tokens are stored in thousandths so that fractional ratios don't need floating point. */
+  private static final long SCALE = 1000;
+
+  private final long deposit;
+  private final long capacity;
+  private final AtomicLong balance;
+
+  RetryBudget(double ratio, int burst) {
+    this.deposit = Math.round(ratio * SCALE);
+    this.capacity = burst * SCALE;
+    this.balance = new AtomicLong(capacity);
+  }
+
+  void deposit() {
+    balance.accumulateAndGet(deposit, (b, d) -> Math.min(capacity, b + d));
+  }
+
+  boolean tryWithdraw() {
+    while (true) {
+      var current = balance.get();
+      if (current < SCALE) {
+        return false;
+      }
+      if (balance.compareAndSet(current, current - SCALE)) {
+        return true;
+      }
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.opentripplanner.client.resilience;
+
+import jakarta.annotation.Nullable;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * How failed requests are retried and slow requests are hedged.
+ *
+ * @param maxAttempts the maximum number of attempts per request, including the first one
+ * @param initialBackoff the upper bound of the delay before the first retry
+ * @param maxBackoff the upper bound of the delay before any retry
+ * @param backoffMultiplier the factor by which the upper bound grows with each retry
+ * @param budgetRatio the number of retries and hedges that each request adds to the retry budget
+ * @param budgetBurst the maximum number of retries and hedges the budget can save up
+ * @param hedgeDelay after how long a duplicate request is sent if there is no answer yet, or null
+ *     to disable hedging
+ */
+public record RetryPolicy(
+    int maxAttempts,
+    Duration initialBackoff,
+    Duration maxBackoff,
+    double backoffMultiplier,
+    double budgetRatio,
+    int budgetBurst,
+    @Nullable Duration hedgeDelay) {
+
+  /** Make a single attempt, which is the default. */
+  public static final RetryPolicy NONE = builder().withMaxAttempts(1).build();
+
+  public RetryPolicy {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be at least 1");
+    }
+    Objects.requireNonNull(initialBackoff);
+    Objects.requireNonNull(maxBackoff);
+    if (backoffMultiplier < 1) {
+      throw new IllegalArgumentException("backoffMultiplier must be at least 1");
+    }
+    if (budgetRatio < 0 || budgetBurst < 0) {
+      throw new IllegalArgumentException("The retry budget must not be negative");
+    }
+    if (hedgeDelay != null && hedgeDelay.isNegative()) {
+      throw new IllegalArgumentException("hedgeDelay must not be negative");
+    }
+  }
+
+  public static RetryPolicyBuilder builder() {
+    return new RetryPolicyBuilder();
+  }
+
+  /**
+   * The upper bound of the delay before the given retry. The actual delay is chosen randomly
+   * between 0 and this bound ("full jitter") so that clients don't retry in lockstep.
+   */
+  Duration backoff(int retry) {
+    var nanos = initialBackoff.toNanos() * Math.pow(backoffMultiplier, retry - 1);
+    return Duration.ofNanos((long) Math.min(nanos, maxBackoff.toNanos()));
+  }
+}
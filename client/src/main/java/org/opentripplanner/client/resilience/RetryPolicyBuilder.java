@@ -0,0 +1,56 @@
+package org.opentripplanner.client.resilience;
+
+import java.time.Duration;
+
+public class RetryPolicyBuilder {
+  private int maxAttempts = 3;
+  private Duration initialBackoff = Duration.ofMillis(100);
+  private Duration maxBackoff = Duration.ofSeconds(2);
+  private double backoffMultiplier = 2;
+  private double budgetRatio = 0.1;
+  private int budgetBurst = 10;
+  private Duration hedgeDelay;
+
+  public RetryPolicyBuilder withMaxAttempts(int maxAttempts) {
+    this.maxAttempts = maxAttempts;
+    return this;
+  }
+
+  public RetryPolicyBuilder withBackoff(
+      Duration initialBackoff, Duration maxBackoff, double multiplier) {
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    this.backoffMultiplier = multiplier;
+    return this;
+  }
+
+  /**
+   * Limit retries and hedges to {@code ratio} per request, for example 0.1 for at most 10% extra
+   * load, with up to {@code burst} saved up. This keeps retries from amplifying an outage.
+   */
+  public RetryPolicyBuilder withRetryBudget(double ratio, int burst) {
+    this.budgetRatio = ratio;
+    this.budgetBurst = burst;
+    return this;
+  }
+
+  /**
+   * Send a duplicate request if there is no answer after {@code hedgeDelay} and use whichever
+   * answers first. A good value is around the p95 latency of the server.
+   */
+  public RetryPolicyBuilder withHedgeDelay(Duration hedgeDelay) {
+    this.hedgeDelay = hedgeDelay;
+    return this;
+  }
+
+  public RetryPolicy build() {
+    return new RetryPolicy(
+        maxAttempts,
+        initialBackoff,
+        maxBackoff,
+        backoffMultiplier,
+        budgetRatio,
+        budgetBurst,
+        hedgeDelay);
+  }
+}
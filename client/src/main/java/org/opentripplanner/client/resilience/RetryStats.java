@@ -0,0 +1,13 @@
+package org.opentripplanner.client.resilience;
+
+/**
+ * Counters of a {@link Retrier}.
+ *
+ * @param attempts HTTP requests sent, including retries and hedges
+ * @param retries attempts that were sent because a previous one failed
+ * @param hedges duplicate requests that were sent because the first one was slow
+ * @param hedgesWon hedges that answered before the request they duplicated
+ * @param budgetExhausted retries and hedges that were skipped because the budget was empty
+ */
+public record RetryStats(
+    long attempts, long retries, long hedges, long hedgesWon, long budgetExhausted) {}
@@ -0,0 +1,133 @@
+package org.opentripplanner.client.serialization;
+
+import com.google.common.cache.CacheBuilder;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.opentripplanner.api.types.Route;
+import org.opentripplanner.api.types.TransitMode;
+import org.opentripplanner.client.model.Agency;
+import org.opentripplanner.client.model.FareProductUse.FareProduct;
+import org.opentripplanner.client.model.Stop;
+
+/**
+ * Resolves equal routes, agencies, stops and fare products to a single shared instance while a
+ * response is deserialized, so that the dozens of copies of the same route in a trip plan don't
+ * each keep their own objects and strings alive.
+ *
+ * <p>Entities are compared by all of their fields rather than only by their id, so that an entity
+ * that was fetched with fewer fields, or that changed in the meantime, is never replaced by another
+ * one. An interner may be used for a single response, or shared by all responses of a client, in
+ * which case it is bounded and evicts the entities that were used least recently when it is full.
+ * Outdated versions of an entity are no longer looked up once the server returns the new one, so
+ * they age out as well.
+ */
+public final class EntityInterner {
+
+  /** The types whose instances are interned. */
+  static final Set<Class<?>> TYPES =
+      Set.of(Route.class, Agency.class, Stop.class, FareProduct.class);
+
+  private final ConcurrentMap<Object, Object> entities;
+
+  /** An unbounded interner for a single response. */
+  public EntityInterner() {
+    this.entities = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * An interner to share between responses.
+   *
+   * @param maxSize the maximum number of entities to keep
+   */
+  public EntityInterner(int maxSize) {
+    this.entities = CacheBuilder.newBuilder().maximumSize(maxSize).build().asMap();
+  }
+
+  /** Return the shared instance which is equal to the given entity. */
+  @SuppressWarnings("unchecked")
+  public <T> T intern(T entity) {
+    var key = key(entity);
+    if (key == null) {
+      return entity;
+    }
+    var existing = entities.get(key);
+    if (existing != null) {
+      return (T) existing;
+    }
+    existing = entities.putIfAbsent(key, entity);
+    return existing == null ? entity : (T) existing;
+  }
+
+  /** The number of distinct entities. */
+  public int size() {
+    return entities.size();
+  }
+
+  public void clear() {
+    entities.clear();
+  }
+
+  /**
+   * The key to compare an entity by. Records are compared by their fields, while the generated
+   * route, which doesn't implement equals, is compared by the fields the client fetches and not
+   * interned if it has others.
+   */
+  private static Object key(Object entity) {
+    if (!(entity instanceof Route route)) {
+      return entity;
+    }
+    var agency = route.getAgency();
+    if (route.getAlerts() != null
+        || route.getPatterns() != null
+        || route.getStops() != null
+        || route.getTrips() != null
+        || (agency != null && hasOtherFields(agency))) {
+      return null;
+    }
+    return new RouteKey(
+        route.getId(),
+        route.getGtfsId(),
+        route.getShortName(),
+        route.getLongName(),
+        route.getDesc(),
+        route.getMode(),
+        route.getType(),
+        Objects.toString(route.getBikesAllowed(), null),
+        route.getColor(),
+        route.getTextColor(),
+        route.getUrl(),
+        route.getSortOrder(),
+        agency == null ? null : agency.getId(),
+        agency == null ? null : agency.getGtfsId(),
+        agency == null ? null : agency.getName());
+  }
+
+  private static boolean hasOtherFields(org.opentripplanner.api.types.Agency agency) {
+    return agency.getAlerts() != null
+        || agency.getFareUrl() != null
+        || agency.getLang() != null
+        || agency.getPhone() != null
+        || agency.getRoutes() != null
+        || agency.getTimezone() != null
+        || agency.getUrl() != null;
+  }
+
+  private record RouteKey(
+      String id,
+      String gtfsId,
+      String shortName,
+      String longName,
+      String desc,
+      TransitMode mode,
+      Integer type,
+      String bikesAllowed,
+      String color,
+      String textColor,
+      String url,
+      Integer sortOrder,
+      String agencyId,
+      String agencyGtfsId,
+      String agencyName) {}
+}
@@ -0,0 +1,156 @@
+package org.opentripplanner.client.serialization;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.opentripplanner.client.GraphQLException;
+import org.opentripplanner.client.metrics.RequestSample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a GraphQL response by streaming through it with a {@link JsonParser} and binding only the
+ * requested fields below {@code data} directly into the target type, without building an
+ * intermediate tree of the whole response.
+ *
+ * <p>The {@code errors} array is collected as well: if a requested field is absent or null and
+ * there are errors, a {@link GraphQLException} is thrown.
+ *
+ * <p>Equal routes, agencies, stops and fare products are resolved to a single instance per
+ * response, or across responses if the reader was created with a shared {@link EntityInterner}.
+ */
+public final class GraphQLResponseReader {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GraphQLResponseReader.class);
+
+  private final ObjectMapper mapper;
+  private final Map<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+  @Nullable private final EntityInterner sharedInterner;
+
+  public GraphQLResponseReader(ObjectMapper mapper) {
+    this(mapper, null);
+  }
+
+  /**
+   * @param sharedInterner the interner to use for all responses, or null for one per response
+   */
+  public GraphQLResponseReader(ObjectMapper mapper, @Nullable EntityInterner sharedInterner) {
+    this.mapper = mapper;
+    this.sharedInterner = sharedInterner;
+  }
+
+  /**
+   * Read the value of {@code data.<field>} from the response.
+   *
+   * @return the bound value or null if the field is absent or null
+   */
+  public <T> T read(InputStream body, String field, JavaType type) throws IOException {
+    return read(body, field, type, null);
+  }
+
+  /**
+   * Variant of {@link #read(InputStream, String, JavaType)} which records the time spent binding
+   * the field in the attempt.
+   */
+  public <T> T read(
+      InputStream body, String field, JavaType type, @Nullable RequestSample.Attempt attempt)
+      throws IOException {
+    return this.<T>readAll(body, List.of(field), type, attempt).getFirst();
+  }
+
+  /**
+   * Read the values of several fields below {@code data}, for example the aliases of a batched
+   * query, which all have the same type.
+   *
+   * @return the bound values in the order of {@code fields}, null for absent or null fields
+   */
+  public <T> List<T> readAll(InputStream body, List<String> fields, JavaType type)
+      throws IOException {
+    return readAll(body, fields, type, null);
+  }
+
+  /**
+   * Variant of {@link #readAll(InputStream, List, JavaType)} which records the time spent binding
+   * the fields in the attempt.
+   */
+  public <T> List<T> readAll(
+      InputStream body, List<String> fields, JavaType type, @Nullable RequestSample.Attempt attempt)
+      throws IOException {
+    var values = new ArrayList<T>(Collections.nCopies(fields.size(), null));
+    var interner = sharedInterner != null ? sharedInterner : new EntityInterner();
+    List<String> errors = List.of();
+    try (JsonParser parser = mapper.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("GraphQL response is not a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        var name = parser.currentName();
+        var token = parser.nextToken();
+        if ("data".equals(name) && token == JsonToken.START_OBJECT) {
+          readDataFields(parser, fields, type, values, interner, attempt);
+        } else if ("errors".equals(name) && token == JsonToken.START_ARRAY) {
+          errors = readErrors(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    if (!errors.isEmpty()) {
+      if (values.contains(null)) {
+        throw new GraphQLException(
+            "GraphQL request for %s returned errors: %s".formatted(fields, errors), errors);
+      }
+      LOG.warn("GraphQL request for {} returned partial data with errors: {}", fields, errors);
+    }
+    return values;
+  }
+
+  private <T> void readDataFields(
+      JsonParser parser,
+      List<String> fields,
+      JavaType type,
+      List<T> values,
+      EntityInterner interner,
+      @Nullable RequestSample.Attempt attempt)
+      throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      var index = fields.indexOf(parser.currentName());
+      var token = parser.nextToken();
+      if (index >= 0 && token != JsonToken.VALUE_NULL) {
+        var start = attempt == null ? 0 : System.nanoTime();
+        values.set(
+            index, reader(type).withAttribute(EntityInterner.class, interner).readValue(parser));
+        if (attempt != null) {
+          attempt.recordMapping(System.nanoTime() - start);
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private static List<String> readErrors(JsonParser parser) throws IOException {
+    var messages = new ArrayList<String>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      JsonNode error = parser.readValueAsTree();
+      var message = error.path("message");
+      messages.add(message.isMissingNode() ? error.toString() : message.asText());
+    }
+    return messages;
+  }
+
+  private ObjectReader reader(JavaType type) {
+    return readers.computeIfAbsent(type, mapper::readerFor);
+  }
+}
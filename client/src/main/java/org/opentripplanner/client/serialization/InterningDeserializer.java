@@ -0,0 +1,45 @@
+package org.opentripplanner.client.serialization;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import java.io.IOException;
+
+/**
+ * Passes the entities of the {@link EntityInterner#TYPES} through the {@link EntityInterner} which
+ * is set as an attribute of the reader. Without the attribute the entities are left as they are.
+ */
+final class InterningDeserializer extends DelegatingDeserializer {
+
+  InterningDeserializer(JsonDeserializer<?> delegate) {
+    super(delegate);
+  }
+
+  @Override
+  protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> delegate) {
+    return new InterningDeserializer(delegate);
+  }
+
+  @Override
+  public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+    var value = _delegatee.deserialize(p, ctxt);
+    return value != null && ctxt.getAttribute(EntityInterner.class) instanceof EntityInterner i
+        ? i.intern(value)
+        : value;
+  }
+
+  static final class Modifier extends BeanDeserializerModifier {
+
+    @Override
+    public JsonDeserializer<?> modifyDeserializer(
+        DeserializationConfig config, BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+      return EntityInterner.TYPES.contains(beanDesc.getBeanClass())
+          ? new InterningDeserializer(deserializer)
+          : deserializer;
+    }
+  }
+}
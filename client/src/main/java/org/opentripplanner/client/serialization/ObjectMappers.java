@@ -13,6 +13,7 @@ public class ObjectMappers {
     SimpleModule module = new SimpleModule();
     module.addDeserializer(OffsetDateTime.class, new OffsetDateTimeSerializer(timezone));
     module.addDeserializer(Duration.class, new DurationSerializer());
+    module.setDeserializerModifier(new InterningDeserializer.Modifier());
     return new ObjectMapper()
         .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
         .registerModule(module)
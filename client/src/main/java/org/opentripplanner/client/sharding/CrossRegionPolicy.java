@@ -0,0 +1,11 @@
+package org.opentripplanner.client.sharding;
+
+/** What to do with a trip whose origin and destination are in different regions. */
+public enum CrossRegionPolicy {
+  /** Plan the trip in the region of the origin. */
+  ORIGIN,
+  /** Plan the trip in the region of the destination. */
+  DESTINATION,
+  /** Fail with a {@link RegionNotFoundException}. */
+  REJECT
+}
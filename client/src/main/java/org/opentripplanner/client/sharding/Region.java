@@ -0,0 +1,28 @@
+package org.opentripplanner.client.sharding;
+
+import java.util.Objects;
+import java.util.Set;
+import org.locationtech.jts.geom.Geometry;
+import org.opentripplanner.client.OtpApiClient;
+
+/**
+ * A part of the world which is served by its own OTP deployment.
+ *
+ * @param name a name for logging and error messages
+ * @param area the area of the region in WGS84, with x being the longitude and y the latitude
+ * @param feedIds the GTFS feed ids of the region, which are the prefixes of its stop ids
+ * @param client the client for the OTP deployment of the region
+ */
+public record Region(String name, Geometry area, Set<String> feedIds, OtpApiClient client) {
+  public Region {
+    Objects.requireNonNull(name);
+    Objects.requireNonNull(area);
+    feedIds = Set.copyOf(feedIds);
+    Objects.requireNonNull(client);
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
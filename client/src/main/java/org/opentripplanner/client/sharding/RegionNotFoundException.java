@@ -0,0 +1,11 @@
+package org.opentripplanner.client.sharding;
+
+import java.io.IOException;
+
+/** Thrown when no region can be determined for a request. */
+public class RegionNotFoundException extends IOException {
+
+  public RegionNotFoundException(String message) {
+    super(message);
+  }
+}
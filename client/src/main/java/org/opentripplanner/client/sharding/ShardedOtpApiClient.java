@@ -0,0 +1,173 @@
+package org.opentripplanner.client.sharding;
+
+import jakarta.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.opentripplanner.client.OtpApiClient;
+import org.opentripplanner.client.model.Coordinate;
+import org.opentripplanner.client.model.PlaceParameter;
+import org.opentripplanner.client.model.Stop;
+import org.opentripplanner.client.model.StopId;
+import org.opentripplanner.client.model.TripPlan;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+
+/**
+ * Routes requests to one of several regional OTP deployments.
+ *
+ * <p>A coordinate is looked up in a spatial index of the region areas, so that dispatching takes
+ * logarithmic time even with hundreds of regions. A stop id is mapped to a region by its feed id,
+ * which is the part before the first colon.
+ */
+public final class ShardedOtpApiClient implements Closeable {
+
+  private static final GeometryFactory GEOMETRY_FACTORY =
+      new GeometryFactory(new PrecisionModel(), 4326);
+
+  private final List<Region> regions;
+  private final STRtree index = new STRtree();
+  private final Map<String, Region> regionsByFeed;
+  private final CrossRegionPolicy crossRegionPolicy;
+  @Nullable private final Region fallback;
+  private final List<OtpApiClient> ownedClients;
+
+  ShardedOtpApiClient(
+      List<Region> regions,
+      CrossRegionPolicy crossRegionPolicy,
+      @Nullable Region fallback,
+      List<OtpApiClient> ownedClients) {
+    this.regions = List.copyOf(regions);
+    this.crossRegionPolicy = crossRegionPolicy;
+    this.fallback = fallback;
+    this.ownedClients = List.copyOf(ownedClients);
+    var byFeed = new HashMap<String, Region>();
+    for (int i = 0; i < regions.size(); i++) {
+      var region = regions.get(i);
+      index.insert(region.area().getEnvelopeInternal(), new IndexedRegion(region, i));
+      for (var feed : region.feedIds()) {
+        var previous = byFeed.put(feed, region);
+        if (previous != null) {
+          throw new IllegalArgumentException(
+              "Feed '%s' belongs to both %s and %s".formatted(feed, previous, region));
+        }
+      }
+    }
+    index.build();
+    this.regionsByFeed = Map.copyOf(byFeed);
+  }
+
+  public static ShardedOtpApiClientBuilder builder() {
+    return new ShardedOtpApiClientBuilder();
+  }
+
+  public List<Region> regions() {
+    return regions;
+  }
+
+  /** Plan a trip in the region of its origin and destination. */
+  public TripPlan plan(TripPlanParameters req) throws IOException {
+    return regionFor(req).client().plan(req);
+  }
+
+  /** Non-blocking variant of {@link #plan(TripPlanParameters)}. */
+  public CompletableFuture<TripPlan> planAsync(TripPlanParameters req) {
+    try {
+      return regionFor(req).client().planAsync(req);
+    } catch (RegionNotFoundException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /** Fetch a stop from the region of its feed. */
+  public Stop stop(String gtfsId) throws IOException {
+    return require(regionFor(new StopId(gtfsId)), gtfsId).client().stop(gtfsId);
+  }
+
+  /**
+   * The region in which a trip is planned, applying the {@link CrossRegionPolicy} if its origin and
+   * destination are in different regions.
+   */
+  public Region regionFor(TripPlanParameters req) throws RegionNotFoundException {
+    var from = regionFor(req.fromPlace());
+    var to = regionFor(req.toPlace());
+    if (from.isPresent() && to.isPresent() && from.get() != to.get()) {
+      return switch (crossRegionPolicy) {
+        case ORIGIN -> from.get();
+        case DESTINATION -> to.get();
+        case REJECT ->
+            throw new RegionNotFoundException(
+                "Trip from %s to %s crosses regions".formatted(from.get(), to.get()));
+      };
+    }
+    return require(from.or(() -> to), req.fromPlace() + " - " + req.toPlace());
+  }
+
+  /** The region which contains a coordinate or to which the feed of a stop id belongs. */
+  public Optional<Region> regionFor(PlaceParameter place) {
+    return switch (place) {
+      case Coordinate c -> regionAt(c.lat(), c.lon());
+      case StopId s -> Optional.ofNullable(regionsByFeed.get(feedId(s.id())));
+    };
+  }
+
+  private Optional<Region> regionAt(double lat, double lon) {
+    var point = GEOMETRY_FACTORY.createPoint(new org.locationtech.jts.geom.Coordinate(lon, lat));
+    @SuppressWarnings("unchecked")
+    List<IndexedRegion> candidates = index.query(point.getEnvelopeInternal());
+    // if regions overlap, the one that was added first wins
+    return candidates.stream()
+        .filter(c -> c.covers(point))
+        .min(Comparator.comparingInt(IndexedRegion::order))
+        .map(IndexedRegion::region);
+  }
+
+  private Region require(Optional<Region> region, String what) throws RegionNotFoundException {
+    if (region.isPresent()) {
+      return region.get();
+    }
+    if (fallback != null) {
+      return fallback;
+    }
+    throw new RegionNotFoundException("No region found for " + what);
+  }
+
+  private static String feedId(String stopId) {
+    var colon = stopId.indexOf(':');
+    return colon < 0 ? stopId : stopId.substring(0, colon);
+  }
+
+  /** Close the clients which were created by the builder. */
+  @Override
+  public void close() throws IOException {
+    for (var client : ownedClients) {
+      client.close();
+    }
+  }
+
+  private record IndexedRegion(
+      Region region, int order, boolean rectangle, PreparedGeometry prepared) {
+    IndexedRegion(Region region, int order) {
+      this(
+          region,
+          order,
+          region.area().isRectangle(),
+          PreparedGeometryFactory.prepare(region.area()));
+    }
+
+    /** A point found via the envelope of a rectangle is always inside it. */
+    boolean covers(Point point) {
+      return rectangle || prepared.covers(point);
+    }
+  }
+}
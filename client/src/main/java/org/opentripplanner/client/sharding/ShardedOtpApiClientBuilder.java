@@ -0,0 +1,88 @@
+package org.opentripplanner.client.sharding;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.opentripplanner.client.OtpApiClient;
+
+public class ShardedOtpApiClientBuilder {
+  private static final GeometryFactory GEOMETRY_FACTORY =
+      new GeometryFactory(new PrecisionModel(), 4326);
+
+  private final List<Region> regions = new ArrayList<>();
+  private final List<OtpApiClient> ownedClients = new ArrayList<>();
+  private CrossRegionPolicy crossRegionPolicy = CrossRegionPolicy.ORIGIN;
+  private Region fallback;
+
+  /** Add a region with a client that is created for the base URI and closed with this client. */
+  public ShardedOtpApiClientBuilder withRegion(
+      String name, Geometry area, Set<String> feedIds, String baseUri, ZoneId timeZone) {
+    var client = OtpApiClient.builder().baseUri(baseUri).timeZone(timeZone).build();
+    ownedClients.add(client);
+    try {
+      return withRegion(new Region(name, area, feedIds, client));
+    } catch (RuntimeException e) {
+      throw closeOwnedClients(e);
+    }
+  }
+
+  /** Add a region with its own, possibly customized, client, which the caller must close. */
+  public ShardedOtpApiClientBuilder withRegion(Region region) {
+    regions.add(Objects.requireNonNull(region));
+    return this;
+  }
+
+  /** The area of a bounding box, for use in {@link #withRegion}. */
+  public static Geometry boundingBox(double minLat, double minLon, double maxLat, double maxLon) {
+    return GEOMETRY_FACTORY.toGeometry(new Envelope(minLon, maxLon, minLat, maxLat));
+  }
+
+  /** What to do with trips between regions. Defaults to {@link CrossRegionPolicy#ORIGIN}. */
+  public ShardedOtpApiClientBuilder withCrossRegionPolicy(CrossRegionPolicy crossRegionPolicy) {
+    this.crossRegionPolicy = Objects.requireNonNull(crossRegionPolicy);
+    return this;
+  }
+
+  /**
+   * The region to use for places outside of all regions. Without it such requests fail with a
+   * {@link RegionNotFoundException}.
+   */
+  public ShardedOtpApiClientBuilder withFallback(Region fallback) {
+    this.fallback = fallback;
+    return this;
+  }
+
+  public ShardedOtpApiClient build() {
+    if (regions.isEmpty()) {
+      throw new IllegalStateException("At least one region is required");
+    }
+    try {
+      return new ShardedOtpApiClient(regions, crossRegionPolicy, fallback, ownedClients);
+    } catch (RuntimeException e) {
+      throw closeOwnedClients(e);
+    }
+  }
+
+  /**
+   * Close the clients which were created for the regions when the sharded client can't be built,
+   * because nobody else holds on to them.
+   */
+  private RuntimeException closeOwnedClients(RuntimeException e) {
+    for (var client : ownedClients) {
+      try {
+        client.close();
+      } catch (IOException closeFailed) {
+        e.addSuppressed(closeFailed);
+      }
+    }
+    ownedClients.clear();
+    return e;
+  }
+}
@@ -101,6 +101,46 @@ public class IntegrationTest {
     assertEquals(List.of(), leg.fareProducts());
   }
 
+  @Test
+  public void planAsync() throws Exception {
+    var result =
+        client
+            .planAsync(
+                TripPlanParameters.builder()
+                    .withFrom(OSLO_WEST)
+                    .withTo(OSLO_EAST)
+                    .withTime(LocalDateTime.now())
+                    .withModes(RequestMode.TRANSIT)
+                    .withNumberOfItineraries(3)
+                    .build())
+            .get();
+
+    LOG.info("Received {} itineraries", result.itineraries().size());
+
+    assertFalse(result.itineraries().isEmpty());
+    assertNotNull(result.itineraries().getFirst().legs().getFirst().startTime());
+  }
+
+  @Test
+  public void planBatch() throws IOException {
+    var builder =
+        TripPlanParameters.builder()
+            .withFrom(OSLO_WEST)
+            .withTo(OSLO_EAST)
+            .withTime(LocalDateTime.now())
+            .withNumberOfItineraries(3);
+
+    var result =
+        client.planBatch(
+            List.of(
+                builder.withModes(RequestMode.TRANSIT).build(),
+                builder.withModes(RequestMode.BICYCLE).build()));
+
+    assertEquals(2, result.size());
+    assertFalse(result.get(0).itineraries().isEmpty());
+    assertFalse(result.get(1).itineraries().isEmpty());
+  }
+
   @Test
   public void planPlaceToPlace() throws IOException {
 
@@ -398,6 +438,14 @@ public class IntegrationTest {
     routes.forEach(r -> assertFalse(r.getAgency().getName().isEmpty()));
   }
 
+  @Test
+  public void routesAsync() throws Exception {
+    var routes = client.routesAsync().get();
+    LOG.info("Received {} routes", routes.size());
+
+    assertFalse(routes.isEmpty());
+  }
+
   @Test
   public void patterns() throws IOException {
 
@@ -0,0 +1,96 @@
+package org.opentripplanner.client;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.model.Coordinate;
+import org.opentripplanner.client.model.RequestMode;
+import org.opentripplanner.client.model.TripPlan;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+
+class BulkPlannerTest {
+
+  private static final List<TripPlanParameters> REQUESTS =
+      IntStream.range(0, 50)
+          .mapToObj(
+              i ->
+                  TripPlanParameters.builder()
+                      .withFrom(new Coordinate(i, 0))
+                      .withTo(new Coordinate(0, i))
+                      .withTime(LocalDateTime.of(2026, 1, 1, 8, 0))
+                      .withModes(RequestMode.TRANSIT)
+                      .build())
+          .toList();
+
+  @Test
+  void resultsInInputOrderWithFailures() throws InterruptedException {
+    var planner =
+        new BulkPlanner(
+            p -> {
+              var lat = ((Coordinate) p.fromPlace()).lat();
+              if (lat % 10 == 0) {
+                throw new IOException("failed " + lat);
+              }
+              Thread.sleep((long) (50 - lat));
+              return new TripPlan(List.of(), String.valueOf(lat), null);
+            },
+            8);
+
+    var outcomes = planner.planAll(REQUESTS);
+
+    assertThat(outcomes).hasSize(REQUESTS.size());
+    for (int i = 0; i < outcomes.size(); i++) {
+      var outcome = outcomes.get(i);
+      assertThat(outcome.index()).isEqualTo(i);
+      assertThat(outcome.parameters()).isSameInstanceAs(REQUESTS.get(i));
+      assertThat(outcome.isSuccess()).isEqualTo(i % 10 != 0);
+    }
+    assertThat(outcomes.get(10).error().get()).hasMessageThat().isEqualTo("failed 10.0");
+  }
+
+  @Test
+  void errorsAreReported() throws InterruptedException {
+    var planner =
+        new BulkPlanner(
+            p -> {
+              throw new AssertionError("broken");
+            },
+            4);
+
+    var outcomes = planner.planAll(REQUESTS.subList(0, 10));
+
+    assertThat(outcomes).hasSize(10);
+    for (var outcome : outcomes) {
+      assertThat(outcome.error().get()).isInstanceOf(ExecutionException.class);
+      assertThat(outcome.error().get()).hasCauseThat().isInstanceOf(AssertionError.class);
+    }
+  }
+
+  @Test
+  void maxInFlightIsRespected() throws InterruptedException {
+    var inFlight = new AtomicInteger();
+    var maxObserved = new AtomicInteger();
+    var planner =
+        new BulkPlanner(
+            p -> {
+              maxObserved.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              Thread.sleep(5);
+              inFlight.decrementAndGet();
+              return new TripPlan(List.of(), null, null);
+            },
+            4);
+
+    var completionOrder = new ArrayList<PlanOutcome>();
+    planner.planAll(REQUESTS, completionOrder::add);
+
+    assertThat(completionOrder).hasSize(REQUESTS.size());
+    assertThat(maxObserved.get()).isAtMost(4);
+  }
+}
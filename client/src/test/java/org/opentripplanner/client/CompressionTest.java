@@ -0,0 +1,102 @@
+package org.opentripplanner.client;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.model.Agency;
+
+/** Exchanges compressed requests and responses with a local stub of the GraphQL endpoint. */
+class CompressionTest {
+
+  private static final String AGENCIES =
+      "{\"data\":{\"agencies\":[{\"gtfsId\":\"a:1\",\"name\":\"A\"}]}}";
+
+  private final List<String> requestEncodings = new CopyOnWriteArrayList<>();
+  private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+  private String responseEncoding = "gzip";
+  private HttpServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/otp/gtfs/v1", this::handle);
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  void gzip() throws Exception {
+    try (var client = client(0)) {
+      assertThat(client.agencies()).containsExactly(new Agency("a:1", "A"));
+      assertThat(client.agenciesAsync().get()).containsExactly(new Agency("a:1", "A"));
+    }
+    assertThat(requestEncodings).containsExactly("gzip", "gzip");
+    assertThat(requestBodies.getFirst()).startsWith("{\"query\":");
+  }
+
+  @Test
+  void deflate() throws Exception {
+    responseEncoding = "deflate";
+    try (var client = client(-1)) {
+      assertThat(client.agencies()).containsExactly(new Agency("a:1", "A"));
+      assertThat(client.agenciesAsync().get()).containsExactly(new Agency("a:1", "A"));
+    }
+    assertThat(requestEncodings).containsExactly("identity", "identity");
+  }
+
+  private OtpApiClient client(int requestCompressionThreshold) {
+    return OtpApiClient.builder()
+        .baseUri("http://127.0.0.1:" + server.getAddress().getPort())
+        .timeZone(ZoneId.of("Europe/Oslo"))
+        .requestCompressionThreshold(requestCompressionThreshold)
+        .build();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    var headers = exchange.getRequestHeaders();
+    var requestEncoding = headers.getOrDefault("Content-Encoding", List.of("identity")).getFirst();
+    requestEncodings.add(requestEncoding);
+    InputStream in = exchange.getRequestBody();
+    if (requestEncoding.equals("gzip")) {
+      in = new GZIPInputStream(in);
+    }
+    requestBodies.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+
+    var bytes = new ByteArrayOutputStream();
+    var acceptsEncoding = headers.getFirst("Accept-Encoding").contains(responseEncoding);
+    try (var out =
+        !acceptsEncoding
+            ? bytes
+            : responseEncoding.equals("gzip")
+                ? new GZIPOutputStream(bytes)
+                : new DeflaterOutputStream(bytes)) {
+      out.write(AGENCIES.getBytes(StandardCharsets.UTF_8));
+    }
+    if (acceptsEncoding) {
+      exchange.getResponseHeaders().add("Content-Encoding", responseEncoding);
+    }
+    exchange.sendResponseHeaders(200, bytes.size());
+    try (var out = exchange.getResponseBody()) {
+      bytes.writeTo(out);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package org.opentripplanner.client;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Reads the same reference data twice from a local stub of the GraphQL endpoint. */
+class InternReferenceDataTest {
+
+  private static final String ROUTES =
+      """
+      {"data":{"routes":[{"gtfsId":"RB:RUT:Line:5","shortName":"5","longName":"Ringen",\
+      "mode":"TRAM","agency":{"gtfsId":"RB:RUT:Authority:RUT","name":"Ruter"}}]}}""";
+
+  private LocalGraphQLServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = LocalGraphQLServer.respondingWith(ROUTES);
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.close();
+  }
+
+  @Test
+  void sharedBetweenResponses() throws IOException {
+    try (var client = client(true)) {
+      var first = client.routes().getFirst();
+      var second = client.routes().getFirst();
+
+      assertThat(second).isSameInstanceAs(first);
+      assertThat(second.getAgency()).isSameInstanceAs(first.getAgency());
+    }
+  }
+
+  @Test
+  void notSharedByDefault() throws IOException {
+    try (var client = client(false)) {
+      var first = client.routes().getFirst();
+      var second = client.routes().getFirst();
+
+      assertThat(second.getGtfsId()).isEqualTo(first.getGtfsId());
+      assertThat(second).isNotSameInstanceAs(first);
+    }
+  }
+
+  private OtpApiClient client(boolean intern) {
+    return server.clientBuilder().internReferenceData(intern).build();
+  }
+}
@@ -0,0 +1,91 @@
+package org.opentripplanner.client;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JfrEventsTest {
+
+  private static final String STOP =
+      "{\"data\":{\"stop\":{\"gtfsId\":\"F:1\",\"name\":\"Central\",\"code\":\"1\"}}}";
+
+  private HttpServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/otp/gtfs/v1", this::handle);
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  void emitsEventsWhileRecording(@TempDir Path dir) throws Exception {
+    var file = dir.resolve("otp.jfr");
+    try (var client =
+            OtpApiClient.builder()
+                .baseUri("http://127.0.0.1:" + server.getAddress().getPort())
+                .timeZone(ZoneId.of("Europe/Oslo"))
+                .compressResponses(false)
+                .build();
+        var recording = new Recording()) {
+      client.stop("F:0");
+      recording.enable(QueryEvent.class);
+      recording.enable(ExchangeEvent.class);
+      recording.enable(DeserializationEvent.class);
+      recording.start();
+      client.stop("F:1");
+      client.stopAsync("F:2").get();
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    var queries = events("org.opentripplanner.client.Query", events);
+    assertThat(queries).hasSize(2);
+    assertThat(queries.getFirst().getString("operation")).isEqualTo("stop");
+    assertThat(queries.getFirst().getString("outcome")).isEqualTo("SUCCESS");
+    assertThat(queries.stream().map(e -> e.getString("variables")).toList())
+        .containsExactly("{\"id\":\"F:1\"}", "{\"id\":\"F:2\"}");
+
+    var exchanges = events("org.opentripplanner.client.Exchange", events);
+    assertThat(exchanges).hasSize(2);
+    assertThat(exchanges.getFirst().getInt("statusCode")).isEqualTo(200);
+    assertThat(exchanges.getFirst().getLong("responseBytes")).isEqualTo(STOP.length());
+    assertThat(exchanges.getFirst().getString("endpoint")).endsWith("/otp/gtfs/v1");
+
+    assertThat(events("org.opentripplanner.client.Deserialization", events)).hasSize(2);
+  }
+
+  private static List<RecordedEvent> events(String name, List<RecordedEvent> events) {
+    return events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    exchange.getRequestBody().readAllBytes();
+    var body = STOP.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (var out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
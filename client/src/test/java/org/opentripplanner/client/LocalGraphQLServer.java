@@ -0,0 +1,59 @@
+package org.opentripplanner.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A local stand-in for the GraphQL endpoint, which answers every request with the same response and
+ * records the request bodies.
+ */
+final class LocalGraphQLServer implements AutoCloseable {
+
+  private final String response;
+  private final List<String> requests = new CopyOnWriteArrayList<>();
+  private final HttpServer server;
+
+  private LocalGraphQLServer(String response) throws IOException {
+    this.response = response;
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/otp/gtfs/v1", this::handle);
+    server.start();
+  }
+
+  static LocalGraphQLServer respondingWith(String response) throws IOException {
+    return new LocalGraphQLServer(response);
+  }
+
+  /** A builder for a client of this server. */
+  OtpApiClient.Builder clientBuilder() {
+    return OtpApiClient.builder()
+        .baseUri("http://127.0.0.1:" + server.getAddress().getPort())
+        .timeZone(ZoneId.of("Europe/Oslo"));
+  }
+
+  /** The bodies of the requests received so far. */
+  List<String> requests() {
+    return requests;
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+    var body = response.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (var out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
@@ -0,0 +1,123 @@
+package org.opentripplanner.client;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.model.Agency;
+import org.opentripplanner.client.resilience.RateLimiter;
+import org.opentripplanner.client.resilience.RateLimits;
+import org.opentripplanner.client.resilience.RequestRejectedException;
+
+/** Runs the persisted query handshake against a local stub of the GraphQL endpoint. */
+class PersistedQueriesTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String AGENCIES =
+      "{\"data\":{\"agencies\":[{\"gtfsId\":\"a:1\",\"name\":\"A\"}]}}";
+  private static final String STOP = "{\"data\":{\"stop\":{\"gtfsId\":\"s:1\",\"name\":\"S\"}}}";
+
+  private final Map<String, String> registeredQueries = new ConcurrentHashMap<>();
+  private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+  private HttpServer server;
+  private OtpApiClient client;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/otp/gtfs/v1", this::handle);
+    server.start();
+    client =
+        OtpApiClient.builder()
+            .baseUri("http://127.0.0.1:" + server.getAddress().getPort())
+            .timeZone(ZoneId.of("Europe/Oslo"))
+            .persistedQueries(true)
+            .build();
+  }
+
+  @AfterEach
+  void stopServer() throws IOException {
+    client.close();
+    server.stop(0);
+  }
+
+  @Test
+  void unknownHashIsRegisteredOnce() throws Exception {
+    assertThat(client.agencies()).containsExactly(new Agency("a:1", "A"));
+    assertThat(requests).hasSize(2);
+    assertThat(requests.get(0).has("query")).isFalse();
+    assertThat(requests.get(1).has("query")).isTrue();
+
+    assertThat(client.agenciesAsync().get()).hasSize(1);
+    assertThat(requests).hasSize(3);
+    assertThat(requests.get(2).has("query")).isFalse();
+  }
+
+  @Test
+  void variablesAreSentWithHash() throws Exception {
+    assertThat(client.stopAsync("s:1").get().name()).isEqualTo("S");
+    assertThat(client.stop("s:1").name()).isEqualTo("S");
+
+    var last = requests.getLast();
+    assertThat(last.has("query")).isFalse();
+    assertThat(last.at("/variables/id").asText()).isEqualTo("s:1");
+    assertThat(requests).hasSize(3);
+  }
+
+  @Test
+  void everyAttemptTakesRateLimitToken() throws Exception {
+    try (var limited =
+        OtpApiClient.builder()
+            .baseUri("http://127.0.0.1:" + server.getAddress().getPort())
+            .timeZone(ZoneId.of("Europe/Oslo"))
+            .persistedQueries(true)
+            .rateLimits(
+                RateLimits.builder()
+                    .withLimit(RateLimiter.of(0.001, 1), List.of(Operation.AGENCIES))
+                    .withFailFast(true)
+                    .build())
+            .build()) {
+      // the hash is unknown, so the full document is sent again and needs a second token
+      assertThrows(RequestRejectedException.class, limited::agencies);
+      assertThat(requests).hasSize(1);
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    var request = MAPPER.readTree(exchange.getRequestBody());
+    requests.add(request);
+    var hash = request.at("/extensions/persistedQuery/sha256Hash").asText();
+    final String response;
+    if (request.has("query")) {
+      registeredQueries.put(hash, request.get("query").asText());
+    }
+    var query = registeredQueries.get(hash);
+    if (query == null) {
+      response = "{\"errors\":[{\"message\":\"PersistedQueryNotFound\"}]}";
+    } else if (query.contains("stop(")) {
+      response = STOP;
+    } else {
+      response = AGENCIES;
+    }
+    var bytes = response.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (var out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package org.opentripplanner.client;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.model.Coordinate;
+import org.opentripplanner.client.model.LegMode;
+import org.opentripplanner.client.model.RequestMode;
+import org.opentripplanner.client.parameters.ResponseProfile;
+import org.opentripplanner.client.parameters.ResponseProfile.LegField;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+
+class ResponseProfileTest {
+
+  private static final String MINIMAL_PLAN =
+      """
+      {"data":{"plan":{"itineraries":[{"duration":600,"legs":[{"mode":"BUS",\
+      "startTime":1700000000000,"endTime":1700000600000,"interlineWithPreviousLeg":false,\
+      "duration":600}]}],"nextPageCursor":null,"previousPageCursor":null}}}""";
+
+  private LocalGraphQLServer server;
+  private List<String> requests;
+  private OtpApiClient client;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = LocalGraphQLServer.respondingWith(MINIMAL_PLAN);
+    requests = server.requests();
+    client = server.clientBuilder().build();
+  }
+
+  @AfterEach
+  void stopServer() throws IOException {
+    client.close();
+    server.close();
+  }
+
+  @Test
+  void minimalProfile() throws IOException {
+    var plan = client.plan(request(ResponseProfile.MINIMAL));
+
+    assertThat(requests.getFirst()).doesNotContain("legGeometry");
+    assertThat(requests.getFirst()).doesNotContain("fareProducts");
+    assertThat(requests.getFirst()).doesNotContain("intermediatePlaces");
+
+    var leg = plan.itineraries().getFirst().legs().getFirst();
+    assertThat(leg.mode()).isEqualTo(LegMode.BUS);
+    assertThat(leg.duration().toMinutes()).isEqualTo(10);
+    assertThat(leg.from()).isNull();
+    assertThat(leg.geometry()).isNull();
+    assertThat(leg.fareProducts()).isEmpty();
+    assertThat(leg.headsign()).isEmpty();
+    assertThat(leg.intermediatePlaces()).isEmpty();
+    assertThat(leg.accessibilityScore()).isEmpty();
+    assertThat(plan.itineraries().getFirst().envelope().isNull()).isTrue();
+  }
+
+  @Test
+  void profilesSelectFields() throws IOException {
+    client.plan(request(ResponseProfile.NO_GEOMETRY));
+    client.plan(request(ResponseProfile.builder().withFields(LegField.GEOMETRY).build()));
+    client.plan(request(ResponseProfile.FULL));
+
+    assertThat(requests.get(0)).doesNotContain("legGeometry");
+    assertThat(requests.get(0)).contains("fareProducts");
+    assertThat(requests.get(1)).contains("legGeometry");
+    assertThat(requests.get(1)).doesNotContain("route");
+    assertThat(requests.get(2)).contains("legGeometry");
+    assertThat(requests.get(2).length()).isGreaterThan(requests.get(0).length());
+  }
+
+  @Test
+  void batchesNeedOneProfile() {
+    var mixed = List.of(request(ResponseProfile.MINIMAL), request(ResponseProfile.FULL));
+
+    assertThrows(IllegalArgumentException.class, () -> client.planBatch(mixed));
+    var future = client.planBatchAsync(mixed);
+    var e = assertThrows(ExecutionException.class, future::get);
+    assertThat(e).hasCauseThat().isInstanceOf(IllegalArgumentException.class);
+    assertThat(requests).isEmpty();
+  }
+
+  @Test
+  void builder() {
+    var profile =
+        ResponseProfile.builder()
+            .withFields(ResponseProfile.FULL.fields())
+            .withoutFields(LegField.GEOMETRY)
+            .build();
+    assertThat(profile).isEqualTo(ResponseProfile.NO_GEOMETRY);
+    assertThat(profile.toString()).isEqualTo("NO_GEOMETRY");
+  }
+
+  private static TripPlanParameters request(ResponseProfile profile) {
+    return TripPlanParameters.builder()
+        .withFrom(new Coordinate(59.91, 10.75))
+        .withTo(new Coordinate(59.95, 10.8))
+        .withTime(LocalDateTime.of(2026, 1, 1, 8, 0))
+        .withModes(RequestMode.TRANSIT)
+        .withResponseProfile(profile)
+        .build();
+  }
+}
@@ -0,0 +1,77 @@
+package org.opentripplanner.client;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private final SingleFlight singleFlight = new SingleFlight();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  void concurrentCallsShareResult() throws Exception {
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var leader =
+          executor.submit(
+              () ->
+                  singleFlight.execute(
+                      "key",
+                      () -> {
+                        started.countDown();
+                        Uninterruptibles.awaitUninterruptibly(release);
+                        return "result-" + calls.incrementAndGet();
+                      }));
+      started.await();
+      var follower = singleFlight.executeAsync("key", () -> fail());
+      release.countDown();
+
+      assertThat(leader.get()).isEqualTo("result-1");
+      assertThat(follower.get()).isEqualTo("result-1");
+    }
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  void completedCallIsNotReused() throws Exception {
+    assertThat(singleFlight.execute("key", () -> calls.incrementAndGet())).isEqualTo(1);
+    assertThat(singleFlight.execute("key", () -> calls.incrementAndGet())).isEqualTo(2);
+  }
+
+  @Test
+  void failureIsShared() {
+    var pending = new CompletableFuture<String>();
+    var first = singleFlight.executeAsync("key", () -> pending);
+    var second = singleFlight.executeAsync("key", () -> fail());
+    pending.completeExceptionally(new IOException("boom"));
+
+    var e = assertThrows(ExecutionException.class, second::get);
+    assertThat(e).hasCauseThat().hasMessageThat().isEqualTo("boom");
+    assertThat(first.isCompletedExceptionally()).isTrue();
+  }
+
+  @Test
+  void cancellingOneCallerDoesNotCancelOthers() throws Exception {
+    var pending = new CompletableFuture<String>();
+    var first = singleFlight.executeAsync("key", () -> pending);
+    var second = singleFlight.<String>executeAsync("key", () -> fail());
+    first.cancel(false);
+    pending.complete("result");
+
+    assertThat(second.get()).isEqualTo("result");
+  }
+
+  private static <T> T fail() {
+    throw new AssertionError("Call should have been coalesced");
+  }
+}
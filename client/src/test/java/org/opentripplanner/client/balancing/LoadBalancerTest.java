@@ -0,0 +1,146 @@
+package org.opentripplanner.client.balancing;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.HttpStatusException;
+import org.opentripplanner.client.balancing.LoadBalancingPolicy.Strategy;
+import org.opentripplanner.client.resilience.ConcurrencyLimitPolicy;
+import org.opentripplanner.client.resilience.EndpointGuard;
+
+class LoadBalancerTest {
+
+  private static final URI A = URI.create("http://a/otp/gtfs/v1");
+  private static final URI B = URI.create("http://b/otp/gtfs/v1");
+
+  private static LoadBalancer balancer(LoadBalancingPolicy policy) {
+    return new LoadBalancer(List.of(A, B), policy, () -> new EndpointGuard(null, null));
+  }
+
+  @Test
+  void ejectFailingEndpoint() throws IOException {
+    var policy = LoadBalancingPolicy.builder().withEjection(2, Duration.ofMinutes(1)).build();
+    var balancer = balancer(policy);
+    var a = balancer.endpoints().getFirst();
+
+    a.onStart();
+    a.onComplete(1, true, policy);
+    assertThat(a.isEjected()).isFalse();
+    a.onStart();
+    a.onComplete(1, true, policy);
+    assertThat(a.isEjected()).isTrue();
+
+    for (int i = 0; i < 20; i++) {
+      assertThat(balancer.execute(Endpoint::uri)).isEqualTo(B);
+    }
+
+    a.reinstate();
+    assertThat(a.isEjected()).isFalse();
+  }
+
+  @Test
+  void serverErrorsCount() {
+    var policy = LoadBalancingPolicy.builder().withEjection(1, Duration.ofMinutes(1)).build();
+    var balancer = balancer(policy);
+
+    assertThrows(
+        HttpStatusException.class,
+        () ->
+            balancer.execute(
+                e -> {
+                  throw new HttpStatusException("Internal Server Error", 500);
+                }));
+
+    assertThat(balancer.endpoints().stream().filter(Endpoint::isEjected).count()).isEqualTo(1);
+  }
+
+  @Test
+  void avoidSaturatedEndpoint() {
+    var policy = LoadBalancingPolicy.builder().withStrategy(Strategy.EWMA).build();
+    var balancer =
+        new LoadBalancer(
+            List.of(A, B),
+            policy,
+            () ->
+                new EndpointGuard(
+                    ConcurrencyLimitPolicy.builder()
+                        .withLimits(1, 1, 1)
+                        .withQueue(0, Duration.ofSeconds(1))
+                        .build(),
+                    null));
+    var a = balancer.endpoints().get(0);
+    var b = balancer.endpoints().get(1);
+    a.onStart();
+    a.onComplete(Duration.ofMillis(1).toNanos(), false, policy);
+    b.onStart();
+    b.onComplete(Duration.ofMillis(100).toNanos(), false, policy);
+
+    // a is faster, so it gets the first request, which never completes and takes its only slot
+    var stuck = new CompletableFuture<URI>();
+    var first = balancer.executeAsync(e -> e == a ? stuck : CompletableFuture.completedFuture(B));
+    assertThat(first.isDone()).isFalse();
+
+    for (int i = 0; i < 20; i++) {
+      assertThat(balancer.executeAsync(e -> CompletableFuture.completedFuture(e.uri())).join())
+          .isEqualTo(B);
+    }
+    assertThat(a.ewmaLatency()).isEqualTo(Duration.ofMillis(1));
+  }
+
+  @Test
+  void rejectionsDoNotCountAsLatency() {
+    var policy = LoadBalancingPolicy.builder().withEjection(1, Duration.ofMinutes(1)).build();
+    var balancer = balancer(policy);
+    var a = balancer.endpoints().get(0);
+    a.onStart();
+    a.onComplete(Duration.ofMillis(50).toNanos(), false, policy);
+
+    a.onStart();
+    a.onAbandoned();
+    assertThat(a.outstanding()).isEqualTo(0);
+    assertThat(a.ewmaLatency()).isEqualTo(Duration.ofMillis(50));
+    assertThat(a.isEjected()).isFalse();
+
+    a.onStart();
+    a.onComplete(1, true, policy);
+    assertThat(a.ewmaLatency()).isEqualTo(policy.failurePenalty());
+  }
+
+  @Test
+  void preferLowerLatency() throws IOException {
+    var policy = LoadBalancingPolicy.builder().withStrategy(Strategy.EWMA).build();
+    var balancer = balancer(policy);
+    var a = balancer.endpoints().get(0);
+    var b = balancer.endpoints().get(1);
+    a.onStart();
+    a.onComplete(Duration.ofSeconds(2).toNanos(), false, policy);
+    b.onStart();
+    b.onComplete(Duration.ofMillis(100).toNanos(), false, policy);
+
+    assertThat(balancer.select()).isSameInstanceAs(b);
+  }
+
+  @Test
+  void preferFewerOutstanding() {
+    var balancer =
+        balancer(LoadBalancingPolicy.builder().withStrategy(Strategy.LEAST_OUTSTANDING).build());
+    var a = balancer.endpoints().get(0);
+    a.onStart();
+
+    assertThat(balancer.select()).isSameInstanceAs(balancer.endpoints().get(1));
+  }
+
+  @Test
+  void useAllEndpointsWhenAllAreEjected() {
+    var balancer = balancer(LoadBalancingPolicy.DEFAULT);
+    balancer.endpoints().forEach(e -> e.eject(Duration.ofMinutes(1)));
+
+    assertThat(balancer.select()).isNotNull();
+  }
+}
@@ -0,0 +1,81 @@
+package org.opentripplanner.client.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.model.Coordinate;
+import org.opentripplanner.client.model.RequestMode;
+import org.opentripplanner.client.model.TripPlan;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+import org.opentripplanner.client.parameters.TripPlanParametersBuilder;
+
+class PlanCacheTest {
+
+  private static final TripPlan PLAN = new TripPlan(List.of(), null, null);
+
+  private static TripPlanParametersBuilder params() {
+    return TripPlanParameters.builder()
+        .withFrom(new Coordinate(59.91234, 10.71234))
+        .withTo(new Coordinate(59.95, 10.8))
+        .withTime(LocalDateTime.of(2026, 1, 1, 8, 30, 15))
+        .withModes(RequestMode.TRANSIT);
+  }
+
+  @Test
+  void hitAndMiss() throws Exception {
+    var cache = PlanCache.builder().build();
+    var loads = new int[1];
+
+    cache.get(params().build(), () -> ++loads[0] > 0 ? PLAN : null);
+    var plan = cache.get(params().build(), () -> ++loads[0] > 0 ? PLAN : null);
+
+    assertThat(plan).isSameInstanceAs(PLAN);
+    assertThat(loads[0]).isEqualTo(1);
+    assertThat(cache.stats()).isEqualTo(new PlanCache.Stats(1, 1, 0));
+  }
+
+  @Test
+  void differentParameters() {
+    var cache = PlanCache.builder().build();
+    cache.put(params().build(), PLAN);
+
+    assertThat(cache.getIfPresent(params().withModes(RequestMode.WALK).build())).isEmpty();
+    assertThat(cache.getIfPresent(params().withTime(LocalDateTime.of(2026, 1, 1, 8, 31)).build()))
+        .isEmpty();
+  }
+
+  @Test
+  void timeBucket() {
+    var cache = PlanCache.builder().withTimeBucket(Duration.ofMinutes(5)).build();
+    cache.put(params().build(), PLAN);
+
+    assertThat(cache.getIfPresent(params().withTime(LocalDateTime.of(2026, 1, 1, 8, 34)).build()))
+        .hasValue(PLAN);
+    assertThat(cache.getIfPresent(params().withTime(LocalDateTime.of(2026, 1, 1, 8, 35)).build()))
+        .isEmpty();
+  }
+
+  @Test
+  void coordinateGrid() {
+    var cache = PlanCache.builder().withCoordinateGrid(0.001).build();
+    cache.put(params().build(), PLAN);
+
+    assertThat(cache.getIfPresent(params().withFrom(new Coordinate(59.9121, 10.7122)).build()))
+        .hasValue(PLAN);
+    assertThat(cache.getIfPresent(params().withFrom(new Coordinate(59.9131, 10.7122)).build()))
+        .isEmpty();
+  }
+
+  @Test
+  void eviction() {
+    var cache = PlanCache.builder().withMaximumSize(1).build();
+    cache.put(params().build(), PLAN);
+    cache.put(params().withModes(RequestMode.WALK).build(), PLAN);
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.stats().evictions()).isEqualTo(1);
+  }
+}
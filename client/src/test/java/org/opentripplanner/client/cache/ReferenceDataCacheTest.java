@@ -0,0 +1,89 @@
+package org.opentripplanner.client.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.OtpApiClient;
+import org.opentripplanner.client.model.Agency;
+
+/** Refreshes reference data from a local stub of the GraphQL endpoint. */
+class ReferenceDataCacheTest {
+
+  private final AtomicBoolean failing = new AtomicBoolean();
+  private HttpServer server;
+  private OtpApiClient client;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/otp/gtfs/v1", this::handle);
+    server.start();
+    client =
+        OtpApiClient.builder()
+            .baseUri("http://127.0.0.1:" + server.getAddress().getPort())
+            .timeZone(ZoneId.of("Europe/Oslo"))
+            .build();
+  }
+
+  @AfterEach
+  void stopServer() throws IOException {
+    client.close();
+    server.stop(0);
+  }
+
+  @Test
+  void staleSnapshotIsKeptOnFailure() throws Exception {
+    try (var cache = ReferenceDataCache.start(client, Duration.ofHours(1))) {
+      var first = cache.get();
+      assertThat(first.route("r:1").get().getShortName()).isEqualTo("1");
+      assertThat(first.agency("a:1")).hasValue(new Agency("a:1", "A"));
+      assertThat(first.patterns()).hasSize(1);
+
+      failing.set(true);
+      assertThat(cache.refresh().get()).isSameInstanceAs(first);
+      assertThat(cache.get()).isSameInstanceAs(first);
+
+      failing.set(false);
+      var second = cache.refresh().get();
+      assertThat(second).isNotSameInstanceAs(first);
+      assertThat(cache.get()).isSameInstanceAs(second);
+    }
+  }
+
+  @Test
+  void failedInitialLoad() {
+    failing.set(true);
+    var e =
+        assertThrows(
+            IOException.class, () -> ReferenceDataCache.start(client, Duration.ofHours(1)));
+    assertThat(e).hasMessageThat().contains("status code 500");
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    var request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    final String response;
+    if (request.contains("routes")) {
+      response = "{\"data\":{\"routes\":[{\"gtfsId\":\"r:1\",\"shortName\":\"1\"}]}}";
+    } else if (request.contains("agencies")) {
+      response = "{\"data\":{\"agencies\":[{\"gtfsId\":\"a:1\",\"name\":\"A\"}]}}";
+    } else {
+      response = "{\"data\":{\"patterns\":[{\"name\":\"P\",\"vehiclePositions\":[]}]}}";
+    }
+    var bytes = response.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(failing.get() ? 500 : 200, bytes.length);
+    try (var out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
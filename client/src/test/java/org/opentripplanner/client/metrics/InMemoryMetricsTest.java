@@ -0,0 +1,126 @@
+package org.opentripplanner.client.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.GraphQLException;
+import org.opentripplanner.client.Operation;
+import org.opentripplanner.client.OtpApiClient;
+
+class InMemoryMetricsTest {
+
+  private static final String AGENCIES =
+      "{\"data\":{\"agencies\":[{\"gtfsId\":\"a:1\",\"name\":\"A\"}]}}";
+  private static final String ERROR = "{\"errors\":[{\"message\":\"Stop not found\"}]}";
+
+  private HttpServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/otp/gtfs/v1", this::handle);
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  void keepsTimingsOfFirstSuccessfulAttempt() {
+    var sample = new RequestSample(Operation.AGENCIES);
+    var failed = sample.startAttempt();
+    var winner = sample.startAttempt();
+    var late = sample.startAttempt();
+
+    failed.recordNetwork(1);
+    failed.complete(false);
+    assertThat(sample.networkNanos()).isEqualTo(1);
+
+    winner.recordNetwork(2);
+    winner.recordResponseBytes(20);
+    winner.complete(true);
+    late.recordNetwork(3);
+    late.recordResponseBytes(30);
+    late.complete(true);
+
+    assertThat(sample.networkNanos()).isEqualTo(2);
+    assertThat(sample.responseBytes()).isEqualTo(20);
+  }
+
+  @Test
+  void recordsPhasesAndOutcomes() throws Exception {
+    var metrics = new InMemoryMetrics();
+    try (var client =
+        OtpApiClient.builder()
+            .baseUri("http://127.0.0.1:" + server.getAddress().getPort())
+            .timeZone(ZoneId.of("Europe/Oslo"))
+            .compressResponses(false)
+            .metrics(metrics)
+            .build()) {
+      client.agencies();
+      client.agenciesAsync().get();
+      assertThrows(GraphQLException.class, () -> client.stop("unknown"));
+    }
+
+    var agencies = metrics.operation(Operation.AGENCIES);
+    assertThat(agencies.count()).isEqualTo(2);
+    assertThat(agencies.count(Outcome.SUCCESS)).isEqualTo(2);
+    assertThat(agencies.responseBytes().max()).isEqualTo(AGENCIES.length());
+    assertThat(agencies.network().count()).isEqualTo(2);
+    assertThat(agencies.mapping().count()).isEqualTo(2);
+    assertThat(agencies.parse().count()).isEqualTo(2);
+    assertThat(agencies.total().valueAtPercentile(50)).isGreaterThan(0);
+
+    var stop = metrics.operation(Operation.STOP);
+    assertThat(stop.count(Outcome.GRAPHQL_ERROR)).isEqualTo(1);
+    assertThat(metrics.toString()).contains("agencies: count=2 errors=0");
+  }
+
+  @Test
+  void histogramPercentiles() {
+    var histogram = new Histogram();
+    for (long i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1000);
+    }
+    histogram.record(-1);
+
+    assertThat(histogram.count()).isEqualTo(100_000);
+    assertThat((double) histogram.valueAtPercentile(50)).isWithin(0.02 * 50_000_000).of(50_000_000);
+    assertThat((double) histogram.valueAtPercentile(99)).isWithin(0.02 * 99_000_000).of(99_000_000);
+    assertThat(histogram.valueAtPercentile(100)).isEqualTo(100_000_000);
+    assertThat(histogram.mean()).isWithin(1).of(50_000_500);
+
+    histogram.reset();
+    assertThat(histogram.valueAtPercentile(99)).isEqualTo(0);
+  }
+
+  @Test
+  void histogramBuckets() {
+    for (long value : new long[] {0, 1, 127, 128, 129, 1000, 123_456_789, Long.MAX_VALUE}) {
+      var highest = Histogram.highestEquivalentValue(Histogram.index(value));
+      assertThat(highest).isAtLeast(value);
+      assertThat((double) highest - value).isAtMost(value / 64.0);
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    var request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    var body = (request.contains("agencies") ? AGENCIES : ERROR).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (var out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
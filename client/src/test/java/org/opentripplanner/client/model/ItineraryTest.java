@@ -0,0 +1,59 @@
+package org.opentripplanner.client.model;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.client.serialization.GraphQLResponseReader;
+import org.opentripplanner.client.serialization.ObjectMappers;
+
+class ItineraryTest {
+
+  private static final JavaType TRIP_PLAN =
+      TypeFactory.defaultInstance().constructType(TripPlan.class);
+
+  @Test
+  void geometry() throws IOException {
+    var plan = plan();
+    var itinerary = plan.itineraries().getFirst();
+
+    var geometry = itinerary.geometry();
+    assertThat(geometry.getNumGeometries()).isEqualTo(2);
+    assertThat(geometry.getNumPoints()).isEqualTo(6);
+    assertThat(geometry.getSRID()).isEqualTo(4326);
+    assertThat(itinerary.geometry(2).getNumPoints()).isEqualTo(4);
+
+    var expected = new Envelope(-126.453, -120.2, 38.5, 43.252);
+    assertThat(itinerary.envelope()).isEqualTo(expected);
+    assertThat(plan.envelope()).isEqualTo(expected);
+    assertThat(plan.geometry().getNumGeometries()).isEqualTo(2);
+  }
+
+  @Test
+  void mergedGeometry() throws IOException {
+    var merged = plan().itineraries().getFirst().mergedGeometry(0);
+    assertThat(merged.numPoints()).isEqualTo(6);
+    assertThat(new LegGeometry(merged.toGoogleEncoding()).lat(5)).isEqualTo(43.252);
+  }
+
+  @Test
+  void mergeSkipsSharedPoints() {
+    var merged =
+        Polylines.merge(
+            List.of(new double[] {1, 1, 2, 2}, new double[] {2, 2, 3, 3}, new double[0]));
+    assertThat(merged).usingExactEquality().containsExactly(1, 1, 2, 2, 3, 3).inOrder();
+  }
+
+  private TripPlan plan() throws IOException {
+    var reader = new GraphQLResponseReader(ObjectMappers.withTimezone(ZoneId.of("Europe/Oslo")));
+    try (var in = Objects.requireNonNull(getClass().getResourceAsStream("/responses/plan.json"))) {
+      return reader.read(in, "plan", TRIP_PLAN);
+    }
+  }
+}
@@ -1,8 +1,14 @@
 package org.opentripplanner.client.model;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import io.leonard.PolylineUtils;
+import io.leonard.Position;
+import java.util.ArrayList;
 import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 
 class LegGeometryTest {
 
@@ -19,4 +25,55 @@ class LegGeometryTest {
     assertThat(first.y).isEqualTo(38.5);
     assertThat(first.x).isEqualTo(-120.2);
   }
+
+  @Test
+  void accessors() {
+    var geom = new LegGeometry(GOOGLE_ENCODED);
+    assertThat(geom.numPoints()).isEqualTo(3);
+    assertThat(geom.lat(2)).isEqualTo(43.252);
+    assertThat(geom.lon(2)).isEqualTo(-126.453);
+    assertThat(geom.coordinate(1)).isEqualTo(new Coordinate(-120.95, 40.7));
+    assertThat(geom.envelope()).isEqualTo(new Envelope(-126.453, -120.2, 38.5, 43.252));
+    assertThrows(IndexOutOfBoundsException.class, () -> geom.lat(3));
+
+    assertThat(new LegGeometry("").numPoints()).isEqualTo(0);
+    assertThat(new LegGeometry("").envelope().isNull()).isTrue();
+  }
+
+  @Test
+  void decodesLikePolylineUtils() {
+    var positions = new ArrayList<Position>();
+    for (int i = 0; i < 500; i++) {
+      positions.add(Position.fromLngLat(10.75 + i * 0.00031, 59.91 - (i % 13) * 0.00117));
+    }
+    var geom = new LegGeometry(PolylineUtils.encode(positions, 5));
+
+    var expected = PolylineUtils.decode(geom.toGoogleEncoding(), 5);
+    assertThat(geom.numPoints()).isEqualTo(expected.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(geom.lon(i)).isWithin(1e-9).of(expected.get(i).getLongitude());
+      assertThat(geom.lat(i)).isWithin(1e-9).of(expected.get(i).getLatitude());
+    }
+    assertThat(geom.toLinestring().getSRID()).isEqualTo(4326);
+    assertThat(geom.toLinestring(3857).getNumPoints()).isEqualTo(500);
+  }
+
+  @Test
+  void simplifyAndEncode() {
+    // a zigzag with 1 metre deviations along a straight line, with one 100 metre detour
+    var positions = new ArrayList<Position>();
+    for (int i = 0; i <= 100; i++) {
+      var detour = i == 50 ? 0.001 : 0;
+      positions.add(Position.fromLngLat(10 + i * 0.001, 60 + (i % 2) * 0.00001 + detour));
+    }
+    var encoded = PolylineUtils.encode(positions, 5);
+    var geom = new LegGeometry(encoded);
+    assertThat(Polylines.encode(geom.coordinates())).isEqualTo(encoded);
+
+    var simplified = geom.simplify(0.0001);
+    assertThat(simplified.numPoints()).isEqualTo(5);
+    assertThat(simplified.lat(2)).isWithin(1e-9).of(60.001);
+    assertThat(new LegGeometry(simplified.toGoogleEncoding()).numPoints()).isEqualTo(5);
+    assertThat(geom.simplify(0.000001)).isSameInstanceAs(geom);
+  }
 }
@@ -0,0 +1,81 @@
+package org.opentripplanner.client.query;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.api.types.PlanResponseProjection;
+import org.opentripplanner.client.model.Coordinate;
+import org.opentripplanner.client.model.RequestMode;
+import org.opentripplanner.client.model.StopId;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+
+class PlanQueryTest {
+
+  private static final TripPlanParameters PARAMS =
+      TripPlanParameters.builder()
+          .withFrom(new Coordinate(59.9, 10.7))
+          .withTo(new StopId("RB:NSR:StopPlace:337"))
+          .withTime(LocalDateTime.of(2026, 1, 1, 8, 30, 15))
+          .withModes(RequestMode.BICYCLE_RENT)
+          .build();
+
+  @Test
+  void document() {
+    var query = PlanQuery.compile(new PlanResponseProjection().nextPageCursor());
+
+    assertThat(query.document()).startsWith("query plan($fromPlace: String, $toPlace: String,");
+    assertThat(query.document()).contains("plan(fromPlace: $fromPlace, toPlace: $toPlace,");
+    assertThat(query.document()).endsWith("{ nextPageCursor } }");
+    assertThat(query.toHttpJsonBody("{}")).endsWith("\"variables\":{}}");
+  }
+
+  @Test
+  void variables() {
+    var vars = PlanQuery.variables(PARAMS);
+
+    assertThat(vars).containsEntry("fromPlace", "59.9,10.7::59.9,10.7");
+    assertThat(vars).containsEntry("toPlace", "RB:NSR:StopPlace:337");
+    assertThat(vars).containsEntry("time", "08:30:15");
+    assertThat(vars).containsEntry("date", "2026-01-01");
+    assertThat(vars)
+        .containsEntry("transportModes", List.of(Map.of("mode", "BICYCLE", "qualifier", "RENT")));
+    assertThat(vars).doesNotContainKey("searchWindow");
+    assertThat(vars).doesNotContainKey("pageCursor");
+  }
+
+  @Test
+  void optionalVariables() {
+    var params =
+        TripPlanParameters.builder()
+            .withFrom(PARAMS.fromPlace())
+            .withTo(PARAMS.toPlace())
+            .withTime(PARAMS.time())
+            .withModes(PARAMS.modes())
+            .withSearchWindow(Duration.ofHours(1))
+            .withWalkReluctance(3d)
+            .build();
+
+    var vars = PlanQuery.variables(params);
+
+    assertThat(vars).containsEntry("searchWindow", 3600L);
+    assertThat(vars).containsEntry("walkReluctance", 3d);
+  }
+
+  @Test
+  void batch() {
+    var query = PlanQuery.compileBatch(new PlanResponseProjection().nextPageCursor(), 2);
+
+    assertThat(query.document()).startsWith("query planBatch($p0_fromPlace: String,");
+    assertThat(query.document()).contains("p0: plan(fromPlace: $p0_fromPlace,");
+    assertThat(query.document()).contains("p1: plan(fromPlace: $p1_fromPlace,");
+
+    var vars = PlanQuery.batchVariables(List.of(PARAMS, PARAMS));
+    assertThat(vars).containsEntry("p0_toPlace", "RB:NSR:StopPlace:337");
+    assertThat(vars).containsEntry("p1_toPlace", "RB:NSR:StopPlace:337");
+    assertThat(vars).hasSize(2 * PlanQuery.variables(PARAMS).size());
+  }
+}
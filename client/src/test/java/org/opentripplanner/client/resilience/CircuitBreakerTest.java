@@ -0,0 +1,73 @@
+package org.opentripplanner.client.resilience;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.resilience.CircuitBreaker.State;
+
+class CircuitBreakerTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final CircuitBreaker breaker =
+      new CircuitBreaker(
+          CircuitBreakerPolicy.builder()
+              .withFailureRateThreshold(0.5)
+              .withWindow(4, 4)
+              .withOpenDuration(Duration.ofSeconds(10))
+              .withHalfOpenRequests(2)
+              .build(),
+          new Ticker() {
+            @Override
+            public long read() {
+              return now.get();
+            }
+          });
+
+  @Test
+  void opensAtFailureRate() throws Exception {
+    breaker.onSuccess();
+    breaker.onFailure();
+    breaker.onSuccess();
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+
+    breaker.onFailure();
+    assertThat(breaker.state()).isEqualTo(State.OPEN);
+    assertThrows(RequestRejectedException.class, breaker::acquirePermission);
+  }
+
+  @Test
+  void closesAfterSuccessfulTrials() throws Exception {
+    open();
+    now.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+
+    breaker.acquirePermission();
+    breaker.acquirePermission();
+    assertThrows(RequestRejectedException.class, breaker::acquirePermission);
+
+    breaker.onSuccess();
+    breaker.onSuccess();
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void reopensAfterFailedTrial() throws Exception {
+    open();
+    now.addAndGet(Duration.ofSeconds(10).toNanos());
+    breaker.acquirePermission();
+    breaker.onFailure();
+
+    assertThat(breaker.state()).isEqualTo(State.OPEN);
+  }
+
+  private void open() {
+    for (int i = 0; i < 4; i++) {
+      breaker.onFailure();
+    }
+    assertThat(breaker.state()).isEqualTo(State.OPEN);
+  }
+}
@@ -0,0 +1,58 @@
+package org.opentripplanner.client.resilience;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+
+  @Test
+  void queueAndReject() {
+    var limiter =
+        new ConcurrencyLimiter(
+            ConcurrencyLimitPolicy.builder()
+                .withLimits(1, 1, 10)
+                .withQueue(1, Duration.ofSeconds(10))
+                .build());
+
+    var first = limiter.acquire();
+    var queued = limiter.acquire();
+    var rejected = limiter.acquire();
+
+    assertThat(first.isDone()).isTrue();
+    assertThat(queued.isDone()).isFalse();
+    assertThat(rejected.isCompletedExceptionally()).isTrue();
+
+    first.join().ignore();
+    assertThat(queued.isDone()).isTrue();
+    assertThat(limiter.inFlight()).isEqualTo(1);
+    assertThat(limiter.queued()).isEqualTo(0);
+  }
+
+  @Test
+  void additiveIncreaseMultiplicativeDecrease() {
+    var limiter =
+        new ConcurrencyLimiter(
+            ConcurrencyLimitPolicy.builder()
+                .withLimits(4, 1, 10)
+                .withBackoffRatio(0.5)
+                .withLatencyThreshold(Duration.ofMinutes(1))
+                .build());
+
+    for (int i = 0; i < 20; i++) {
+      var permits = new ConcurrencyLimiter.Permit[limiter.limit()];
+      for (int j = 0; j < permits.length; j++) {
+        permits[j] = limiter.acquire().join();
+      }
+      for (var permit : permits) {
+        permit.onSuccess();
+      }
+    }
+    var grown = limiter.limit();
+    assertThat(grown).isGreaterThan(4);
+
+    limiter.acquire().join().onDropped();
+    assertThat(limiter.limit()).isEqualTo(grown / 2);
+  }
+}
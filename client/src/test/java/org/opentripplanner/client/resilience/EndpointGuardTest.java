@@ -0,0 +1,131 @@
+package org.opentripplanner.client.resilience;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.GraphQLException;
+import org.opentripplanner.client.HttpStatusException;
+import org.opentripplanner.client.resilience.CircuitBreaker.State;
+
+class EndpointGuardTest {
+
+  @Test
+  void serverErrorsOpenBreaker() {
+    var guard =
+        new EndpointGuard(
+            null,
+            CircuitBreakerPolicy.builder().withFailureRateThreshold(0.5).withWindow(4, 4).build());
+
+    for (int i = 0; i < 4; i++) {
+      assertThrows(
+          HttpStatusException.class,
+          () ->
+              guard.execute(
+                  () -> {
+                    throw new HttpStatusException("Internal Server Error", 500);
+                  }));
+    }
+
+    assertThat(guard.circuitBreaker().orElseThrow().state()).isEqualTo(State.OPEN);
+  }
+
+  @Test
+  void inconclusiveTrialKeepsBreakerHalfOpen() throws Exception {
+    var guard =
+        new EndpointGuard(
+            null,
+            CircuitBreakerPolicy.builder()
+                .withFailureRateThreshold(0.5)
+                .withWindow(1, 1)
+                .withOpenDuration(Duration.ofMillis(1))
+                .withHalfOpenRequests(1)
+                .build());
+    var breaker = guard.circuitBreaker().orElseThrow();
+    assertThrows(
+        HttpStatusException.class,
+        () ->
+            guard.execute(
+                () -> {
+                  throw new HttpStatusException("Bad Gateway", 502);
+                }));
+    Thread.sleep(5);
+    assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+
+    assertThrows(
+        GraphQLException.class,
+        () ->
+            guard.execute(
+                () -> {
+                  throw new GraphQLException("bad query", List.of());
+                }));
+    assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+
+    // the trial slot was given back
+    assertThat(guard.execute(() -> "ok")).isEqualTo("ok");
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void cancelledRequestReleasesSlotWithoutVerdict() {
+    var guard =
+        new EndpointGuard(
+            ConcurrencyLimitPolicy.builder().withLimits(4, 1, 10).build(),
+            CircuitBreakerPolicy.builder().withWindow(1, 1).build());
+    var limiter = guard.limiter().orElseThrow();
+    var exchange = new CompletableFuture<String>();
+
+    var result = guard.executeAsync(() -> exchange);
+    assertThat(limiter.inFlight()).isEqualTo(1);
+    result.cancel(false);
+
+    assertThat(exchange.isCancelled()).isTrue();
+    assertThat(limiter.inFlight()).isEqualTo(0);
+    assertThat(limiter.limit()).isEqualTo(4);
+    assertThat(guard.circuitBreaker().orElseThrow().state()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void interruptedWaiterDoesNotLeakSlot() throws Exception {
+    var guard =
+        new EndpointGuard(
+            ConcurrencyLimitPolicy.builder()
+                .withLimits(1, 1, 1)
+                .withQueue(1, Duration.ofSeconds(10))
+                .build(),
+            null);
+    var limiter = guard.limiter().orElseThrow();
+    var busy = new CompletableFuture<Void>();
+    var holder = Thread.ofVirtual().start(() -> guard.executeAsync(() -> busy).join());
+    while (limiter.inFlight() == 0) {
+      Thread.onSpinWait();
+    }
+
+    var waiter = new CompletableFuture<Throwable>();
+    var thread =
+        Thread.ofVirtual()
+            .start(
+                () -> {
+                  try {
+                    guard.execute(() -> "too late");
+                  } catch (Throwable e) {
+                    waiter.complete(e);
+                  }
+                });
+    while (limiter.queued() == 0) {
+      Thread.onSpinWait();
+    }
+    thread.interrupt();
+    assertThat(waiter.get()).isInstanceOf(InterruptedIOException.class);
+
+    busy.complete(null);
+    holder.join();
+    assertThat(limiter.inFlight()).isEqualTo(0);
+    assertThat(guard.execute(() -> "next")).isEqualTo("next");
+    assertThat(limiter.inFlight()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,66 @@
+package org.opentripplanner.client.resilience;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.Operation;
+
+class RateLimiterTest {
+
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+  private final Ticker ticker =
+      new Ticker() {
+        @Override
+        public long read() {
+          return now.get();
+        }
+      };
+
+  @Test
+  void burstThenRate() {
+    var limiter = RateLimiter.of(10, 3, ticker);
+
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isFalse();
+
+    now.addAndGet(Duration.ofMillis(100).toNanos());
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isFalse();
+
+    now.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isFalse();
+  }
+
+  @Test
+  void asyncWaitsForToken() {
+    var limiter = RateLimiter.of(1, 1, ticker);
+
+    assertThat(limiter.acquireAsync().isDone()).isTrue();
+    var waiting = limiter.acquireAsync();
+    assertThat(waiting.isDone()).isFalse();
+  }
+
+  @Test
+  void failFastPerOperation() throws Exception {
+    var limits =
+        RateLimits.builder()
+            .withLimit(RateLimiter.of(1, 1, ticker), List.of(Operation.PLAN))
+            .withFailFast(true)
+            .build();
+
+    limits.acquire(Operation.PLAN);
+    assertThrows(RequestRejectedException.class, () -> limits.acquire(Operation.PLAN));
+    limits.acquire(Operation.ROUTES);
+    assertThat(limits.acquireAsync(Operation.PLAN).isCompletedExceptionally()).isTrue();
+  }
+}
@@ -0,0 +1,154 @@
+package org.opentripplanner.client.resilience;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.GraphQLException;
+import org.opentripplanner.client.HttpStatusException;
+
+class RetrierTest {
+
+  private static final RetryPolicy POLICY =
+      RetryPolicy.builder()
+          .withMaxAttempts(3)
+          .withBackoff(Duration.ofMillis(1), Duration.ofMillis(5), 2)
+          .build();
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  void retryTransientFailures() throws Exception {
+    var retrier = new Retrier(POLICY);
+
+    var result =
+        retrier.execute(
+            () -> {
+              if (calls.incrementAndGet() < 3) {
+                throw new HttpStatusException("unavailable", 503);
+              }
+              return "ok";
+            });
+
+    assertThat(result).isEqualTo("ok");
+    assertThat(retrier.stats()).isEqualTo(new RetryStats(3, 2, 0, 0, 0));
+  }
+
+  @Test
+  void giveUpAfterMaxAttempts() {
+    var retrier = new Retrier(POLICY);
+
+    var future =
+        retrier.executeAsync(
+            () -> {
+              calls.incrementAndGet();
+              return CompletableFuture.failedFuture(new SocketTimeoutException());
+            });
+
+    var e = assertThrows(Exception.class, future::join);
+    assertThat(e).hasCauseThat().isInstanceOf(SocketTimeoutException.class);
+    assertThat(calls.get()).isEqualTo(3);
+  }
+
+  @Test
+  void doNotRetryPermanentFailures() {
+    assertThat(Retrier.isTransient(new GraphQLException("bad query", List.of()))).isFalse();
+    assertThat(Retrier.isTransient(new HttpStatusException("not found", 404))).isFalse();
+    assertThat(Retrier.isTransient(new HttpStatusException("busy", 429))).isTrue();
+    assertThat(Retrier.isTransient(new IOException("connection reset"))).isTrue();
+  }
+
+  @Test
+  void budgetLimitsRetries() {
+    var retrier =
+        new Retrier(
+            RetryPolicy.builder()
+                .withMaxAttempts(5)
+                .withBackoff(Duration.ZERO, Duration.ZERO, 1)
+                .withRetryBudget(0, 2)
+                .build());
+
+    assertThrows(
+        IOException.class,
+        () ->
+            retrier.execute(
+                () -> {
+                  throw new IOException("down");
+                }));
+
+    assertThat(retrier.stats()).isEqualTo(new RetryStats(3, 2, 0, 0, 1));
+  }
+
+  @Test
+  void hedgeWins() {
+    var retrier =
+        new Retrier(
+            RetryPolicy.builder().withMaxAttempts(1).withHedgeDelay(Duration.ofMillis(10)).build());
+    var slow = new CompletableFuture<String>();
+
+    var result =
+        retrier.executeAsync(
+            () -> calls.incrementAndGet() == 1 ? slow : CompletableFuture.completedFuture("hedge"));
+
+    assertThat(result.join()).isEqualTo("hedge");
+    assertThat(retrier.stats()).isEqualTo(new RetryStats(2, 0, 1, 1, 0));
+    assertThat(slow.isCancelled()).isTrue();
+  }
+
+  @Test
+  void exhaustedBudgetDoesNotLoseFailure() {
+    var retrier =
+        new Retrier(
+            RetryPolicy.builder()
+                .withMaxAttempts(1)
+                .withHedgeDelay(Duration.ofMillis(10))
+                .withRetryBudget(0, 0)
+                .build());
+    var slow = new CompletableFuture<String>();
+
+    var result = retrier.executeAsync(() -> slow);
+    while (retrier.stats().budgetExhausted() == 0) {
+      Thread.onSpinWait();
+    }
+    slow.completeExceptionally(new SocketTimeoutException());
+
+    var e = assertThrows(Exception.class, result::join);
+    assertThat(e).hasCauseThat().isInstanceOf(SocketTimeoutException.class);
+    assertThat(retrier.stats()).isEqualTo(new RetryStats(1, 0, 0, 0, 1));
+  }
+
+  @Test
+  void blockingHedgeWins() throws Exception {
+    var retrier =
+        new Retrier(
+            RetryPolicy.builder().withMaxAttempts(1).withHedgeDelay(Duration.ofMillis(10)).build());
+
+    var loserInterrupted = new CompletableFuture<Boolean>();
+
+    var result =
+        retrier.execute(
+            () -> {
+              if (calls.incrementAndGet() == 1) {
+                try {
+                  Thread.sleep(Duration.ofSeconds(10));
+                  loserInterrupted.complete(false);
+                } catch (InterruptedException e) {
+                  loserInterrupted.complete(true);
+                }
+                return "slow";
+              }
+              return "hedge";
+            });
+
+    assertThat(result).isEqualTo("hedge");
+    assertThat(retrier.stats().hedgesWon()).isEqualTo(1);
+    assertThat(loserInterrupted.get(1, TimeUnit.SECONDS)).isTrue();
+  }
+}
@@ -0,0 +1,158 @@
+package org.opentripplanner.client.serialization;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.GraphQLException;
+import org.opentripplanner.client.model.Agency;
+import org.opentripplanner.client.model.LegMode;
+import org.opentripplanner.client.model.TripPlan;
+
+class GraphQLResponseReaderTest {
+
+  private static final GraphQLResponseReader READER =
+      new GraphQLResponseReader(ObjectMappers.withTimezone(ZoneId.of("Europe/Oslo")));
+  private static final JavaType TRIP_PLAN =
+      TypeFactory.defaultInstance().constructType(TripPlan.class);
+  private static final JavaType AGENCY_LIST =
+      TypeFactory.defaultInstance().constructCollectionType(List.class, Agency.class);
+
+  @Test
+  void plan() throws IOException {
+    try (var in = Objects.requireNonNull(getClass().getResourceAsStream("/responses/plan.json"))) {
+      TripPlan plan = READER.read(in, "plan", TRIP_PLAN);
+
+      assertThat(plan.itineraries()).hasSize(1);
+      assertThat(plan.nextPageCursor()).isEqualTo("next");
+      var legs = plan.itineraries().getFirst().legs();
+      assertThat(legs.get(0).mode()).isEqualTo(LegMode.WALK);
+      assertThat(legs.get(1).route().getShortName()).isEqualTo("19");
+      assertThat(legs.get(1).fareProducts().getFirst().product().name()).isEqualTo("Single ticket");
+    }
+  }
+
+  @Test
+  void internsEntities() throws IOException {
+    var plan = planJson();
+    var batch = "{\"data\":{\"a\":%s,\"b\":%s}}".formatted(plan, plan);
+    List<TripPlan> plans = READER.readAll(json(batch), List.of("a", "b"), TRIP_PLAN);
+
+    var a = plans.get(0).itineraries().getFirst().legs().get(1);
+    var b = plans.get(1).itineraries().getFirst().legs().get(1);
+    assertThat(b.route()).isSameInstanceAs(a.route());
+    assertThat(b.agency()).isSameInstanceAs(a.agency());
+    assertThat(b.from().stop().get()).isSameInstanceAs(a.from().stop().get());
+    assertThat(b.fareProducts().getFirst().product())
+        .isSameInstanceAs(a.fareProducts().getFirst().product());
+    assertThat(a.to().stop()).isNotEqualTo(a.from().stop());
+
+    // by default nothing is shared between responses
+    var single = "{\"data\":{\"plan\":%s}}".formatted(plan);
+    TripPlan other = READER.read(json(single), "plan", TRIP_PLAN);
+    assertThat(other.itineraries().getFirst().legs().get(1).route()).isNotSameInstanceAs(a.route());
+
+    var interner = new EntityInterner(1000);
+    var shared =
+        new GraphQLResponseReader(ObjectMappers.withTimezone(ZoneId.of("Europe/Oslo")), interner);
+    TripPlan first = shared.read(json(single), "plan", TRIP_PLAN);
+    TripPlan second = shared.read(json(single), "plan", TRIP_PLAN);
+    assertThat(second.itineraries().getFirst().legs().get(1).route())
+        .isSameInstanceAs(first.itineraries().getFirst().legs().get(1).route());
+    assertThat(interner.size()).isGreaterThan(4);
+  }
+
+  @Test
+  void sharedInternerEvictsWhenFull() {
+    var interner = new EntityInterner(100);
+    for (int i = 0; i < 1000; i++) {
+      interner.intern(new Agency("a:" + i, "Agency " + i));
+    }
+    assertThat(interner.size()).isAtMost(100);
+
+    // a full interner keeps sharing new entities
+    var agency = new Agency("b:1", "B");
+    assertThat(interner.intern(new Agency("b:1", "B"))).isSameInstanceAs(interner.intern(agency));
+  }
+
+  @Test
+  void skipsOtherFields() throws IOException {
+    List<Agency> agencies =
+        READER.read(
+            json(
+                """
+                {"extensions": {"a": [1, 2]}, "data": {"other": {"x": [1]}, "agencies": [{"gtfsId": "a:1", "name": "A"}]}}"""),
+            "agencies",
+            AGENCY_LIST);
+
+    assertThat(agencies).containsExactly(new Agency("a:1", "A"));
+  }
+
+  private String planJson() throws IOException {
+    try (var in = Objects.requireNonNull(getClass().getResourceAsStream("/responses/plan.json"))) {
+      var json = new ObjectMapper().readTree(in);
+      return json.path("data").path("plan").toString();
+    }
+  }
+
+  @Test
+  void missingField() throws IOException {
+    assertThat((Object) READER.read(json("{\"data\": {\"plan\": null}}"), "plan", TRIP_PLAN))
+        .isNull();
+  }
+
+  @Test
+  void errorsWithoutData() {
+    var e =
+        assertThrows(
+            GraphQLException.class,
+            () ->
+                READER.read(
+                    json(
+                        """
+                        {"errors": [{"message": "Validation error"}, {"message": "Other"}], "data": null}"""),
+                    "plan",
+                    TRIP_PLAN));
+
+    assertThat(e.errorMessages()).containsExactly("Validation error", "Other");
+  }
+
+  @Test
+  void errorsWithPartialData() throws IOException {
+    List<Agency> agencies =
+        READER.read(
+            json(
+                """
+                {"data": {"agencies": []}, "errors": [{"message": "Partial"}]}"""),
+            "agencies",
+            AGENCY_LIST);
+
+    assertThat(agencies).isEmpty();
+  }
+
+  @Test
+  void aliases() throws IOException {
+    List<List<Agency>> agencies =
+        READER.readAll(
+            json(
+                """
+                {"data": {"p1": [{"gtfsId": "a:2", "name": "B"}], "p0": []}}"""),
+            List.of("p0", "p1"),
+            AGENCY_LIST);
+
+    assertThat(agencies).containsExactly(List.of(), List.of(new Agency("a:2", "B"))).inOrder();
+  }
+
+  private static ByteArrayInputStream json(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
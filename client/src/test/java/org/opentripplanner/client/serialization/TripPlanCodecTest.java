@@ -0,0 +1,138 @@
+package org.opentripplanner.client.serialization;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.client.model.Leg;
+import org.opentripplanner.client.model.TripPlan;
+
+class TripPlanCodecTest {
+
+  private static final JavaType TRIP_PLAN =
+      TypeFactory.defaultInstance().constructType(TripPlan.class);
+
+  @Test
+  void roundTrip() throws IOException {
+    var plan = plan();
+    var encoded = TripPlanCodec.encode(plan);
+    var decoded = TripPlanCodec.decode(encoded);
+
+    assertThat(encoded.hasRemaining()).isFalse();
+    assertEqual(decoded, plan);
+  }
+
+  @Test
+  void streamsSeveralPlans() throws IOException {
+    var plan = plan();
+    var buffer = ByteBuffer.allocate(4096);
+    TripPlanCodec.encode(plan, buffer);
+    var size = buffer.position();
+    TripPlanCodec.encode(plan, buffer);
+    buffer.flip();
+
+    assertThat(buffer.limit()).isEqualTo(2 * size);
+    assertEqual(TripPlanCodec.decode(buffer), plan);
+    assertEqual(TripPlanCodec.decode(buffer), plan);
+    assertThat(buffer.hasRemaining()).isFalse();
+
+    assertThrows(
+        BufferOverflowException.class,
+        () -> TripPlanCodec.encode(plan, ByteBuffer.allocate(size - 1)));
+  }
+
+  @Test
+  void isCompact() throws IOException {
+    byte[] json;
+    try (var in = Objects.requireNonNull(getClass().getResourceAsStream("/responses/plan.json"))) {
+      json = in.readAllBytes();
+    }
+    assertThat(TripPlanCodec.encode(plan()).remaining()).isLessThan(json.length / 3);
+  }
+
+  @Test
+  void sharesEntities() throws IOException {
+    var plan = plan();
+    var twice =
+        new TripPlan(
+            List.of(plan.itineraries().getFirst(), plan.itineraries().getFirst()), null, null);
+    var decoded = TripPlanCodec.decode(TripPlanCodec.encode(twice));
+
+    var a = decoded.itineraries().get(0).legs().get(1);
+    var b = decoded.itineraries().get(1).legs().get(1);
+    assertThat(b.route()).isSameInstanceAs(a.route());
+    assertThat(b.from().stop().get()).isSameInstanceAs(a.from().stop().get());
+  }
+
+  @Test
+  void rejectsUnknownVersions() throws IOException {
+    var encoded = TripPlanCodec.encode(plan());
+    encoded.put(4, (byte) (TripPlanCodec.VERSION + 1));
+    var e = assertThrows(IllegalArgumentException.class, () -> TripPlanCodec.decode(encoded));
+    assertThat(e).hasMessageThat().contains("version");
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> TripPlanCodec.decode(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5})));
+  }
+
+  /** The generated route and the leg geometry don't implement equals. */
+  private static void assertEqual(TripPlan actual, TripPlan expected) {
+    assertThat(actual.nextPageCursor()).isEqualTo(expected.nextPageCursor());
+    assertThat(actual.previousPageCursor()).isEqualTo(expected.previousPageCursor());
+    assertThat(actual.itineraries()).hasSize(expected.itineraries().size());
+    for (int i = 0; i < expected.itineraries().size(); i++) {
+      var legs = actual.itineraries().get(i).legs();
+      var expectedLegs = expected.itineraries().get(i).legs();
+      assertThat(actual.itineraries().get(i).accessibilityScore())
+          .isEqualTo(expected.itineraries().get(i).accessibilityScore());
+      assertThat(legs).hasSize(expectedLegs.size());
+      for (int j = 0; j < expectedLegs.size(); j++) {
+        var leg = legs.get(j);
+        var expectedLeg = expectedLegs.get(j);
+        assertThat(withoutRouteAndGeometry(leg)).isEqualTo(withoutRouteAndGeometry(expectedLeg));
+        assertThat(String.valueOf(leg.route())).isEqualTo(String.valueOf(expectedLeg.route()));
+        assertThat(leg.geometry() == null ? null : leg.geometry().toGoogleEncoding())
+            .isEqualTo(
+                expectedLeg.geometry() == null ? null : expectedLeg.geometry().toGoogleEncoding());
+      }
+    }
+  }
+
+  private static Leg withoutRouteAndGeometry(Leg leg) {
+    return new Leg(
+        leg.from(),
+        leg.to(),
+        leg.startTime(),
+        leg.endTime(),
+        leg.realTime(),
+        leg.interlineWithPreviousLeg(),
+        leg.mode(),
+        leg.duration(),
+        leg.distance(),
+        leg.headsign(),
+        null,
+        leg.trip(),
+        leg.fareProducts(),
+        leg.accessibilityScore(),
+        leg.agency(),
+        null,
+        leg.rentedVehicle(),
+        leg.intermediatePlaces());
+  }
+
+  private TripPlan plan() throws IOException {
+    var reader = new GraphQLResponseReader(ObjectMappers.withTimezone(ZoneId.of("Europe/Oslo")));
+    try (var in = Objects.requireNonNull(getClass().getResourceAsStream("/responses/plan.json"))) {
+      return reader.read(in, "plan", TRIP_PLAN);
+    }
+  }
+}
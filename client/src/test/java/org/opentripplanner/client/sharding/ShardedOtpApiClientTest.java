@@ -0,0 +1,88 @@
+package org.opentripplanner.client.sharding;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.opentripplanner.client.sharding.ShardedOtpApiClientBuilder.boundingBox;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.io.WKTReader;
+import org.opentripplanner.client.model.Coordinate;
+import org.opentripplanner.client.model.PlaceParameter;
+import org.opentripplanner.client.model.RequestMode;
+import org.opentripplanner.client.model.StopId;
+import org.opentripplanner.client.parameters.TripPlanParameters;
+
+class ShardedOtpApiClientTest {
+
+  private static final Coordinate OSLO = new Coordinate(59.91, 10.75);
+  private static final Coordinate BERGEN = new Coordinate(60.39, 5.32);
+  private static final Coordinate BERLIN = new Coordinate(52.52, 13.40);
+
+  private ShardedOtpApiClient client;
+
+  @AfterEach
+  void close() throws Exception {
+    client.close();
+  }
+
+  private ShardedOtpApiClient client(CrossRegionPolicy policy) throws Exception {
+    var oslo = ZoneId.of("Europe/Oslo");
+    // a triangle around Oslo whose bounding box also contains Bergen
+    var east = new WKTReader().read("POLYGON ((4 59, 12 59, 12 61.5, 4 59))");
+    client =
+        ShardedOtpApiClient.builder()
+            .withRegion("east", east, Set.of("RUT"), "http://east", oslo)
+            .withRegion("west", boundingBox(59.5, 4.5, 61, 7), Set.of("SKY"), "http://west", oslo)
+            .withCrossRegionPolicy(policy)
+            .build();
+    return client;
+  }
+
+  @Test
+  void coordinates() throws Exception {
+    var client = client(CrossRegionPolicy.ORIGIN);
+
+    assertThat(name(client, OSLO)).isEqualTo("east");
+    assertThat(name(client, BERGEN)).isEqualTo("west");
+    assertThat(client.regionFor(BERLIN)).isEmpty();
+  }
+
+  @Test
+  void stopIds() throws Exception {
+    var client = client(CrossRegionPolicy.ORIGIN);
+
+    assertThat(name(client, new StopId("SKY:StopPlace:1"))).isEqualTo("west");
+    assertThat(client.regionFor(new StopId("ATB:StopPlace:1"))).isEmpty();
+  }
+
+  @Test
+  void crossRegionPolicy() throws Exception {
+    assertThat(client(CrossRegionPolicy.ORIGIN).regionFor(trip(OSLO, BERGEN)).name())
+        .isEqualTo("east");
+    client.close();
+    assertThat(client(CrossRegionPolicy.DESTINATION).regionFor(trip(OSLO, BERGEN)).name())
+        .isEqualTo("west");
+    client.close();
+    var rejecting = client(CrossRegionPolicy.REJECT);
+    assertThrows(RegionNotFoundException.class, () -> rejecting.regionFor(trip(OSLO, BERGEN)));
+    assertThat(rejecting.regionFor(trip(OSLO, BERLIN)).name()).isEqualTo("east");
+    assertThrows(RegionNotFoundException.class, () -> rejecting.regionFor(trip(BERLIN, BERLIN)));
+  }
+
+  private static String name(ShardedOtpApiClient client, PlaceParameter place) {
+    return client.regionFor(place).orElseThrow().name();
+  }
+
+  private static TripPlanParameters trip(PlaceParameter from, PlaceParameter to) {
+    return TripPlanParameters.builder()
+        .withFrom(from)
+        .withTo(to)
+        .withTime(LocalDateTime.of(2026, 1, 1, 8, 0))
+        .withModes(RequestMode.TRANSIT)
+        .build();
+  }
+}
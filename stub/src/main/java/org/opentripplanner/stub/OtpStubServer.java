@@ -0,0 +1,220 @@
+package org.opentripplanner.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local HTTP server which stands in for the GraphQL API of OTP, for testing and benchmarking
+ * without a deployment.
+ *
+ * <p>In recording mode, see {@link OtpStubServerBuilder#withUpstream(URI)}, requests are forwarded
+ * to a real instance and the exchanges are added to the {@link #recording()}, which can be saved
+ * and replayed later by a server built {@link OtpStubServerBuilder#withRecording(Recording) with
+ * it}. Either way the server can inject latency, jitter, errors and a bandwidth limit, with a
+ * seeded random generator so that runs can be repeated.
+ *
+ * <pre>{@code
+ * try (var stub = OtpStubServer.builder()
+ *     .withRecording(Recording.load(Path.of("plans.jsonl")))
+ *     .withIgnoredVariables("time", "date")
+ *     .withLatency(Duration.ofMillis(50))
+ *     .withErrorRate(0.01)
+ *     .start()) {
+ *   var client = OtpApiClient.builder().baseUri(stub.baseUri()).build();
+ * }
+ * }</pre>
+ */
+public final class OtpStubServer implements AutoCloseable {
+
+  public static final String GRAPHQL_PATH = "/otp/gtfs/v1";
+
+  private static final String NOT_RECORDED =
+      "{\"errors\":[{\"message\":\"No response was recorded for this request\"}]}";
+  private static final int CHUNKS_PER_SECOND = 50;
+
+  private final Recording recording;
+  @Nullable private final URI upstream;
+  private final String defaultResponse;
+  private final RequestMatcher matcher;
+  private final long latencyNanos;
+  private final long jitterNanos;
+  private final double errorRate;
+  private final int errorStatus;
+  private final long bytesPerSecond;
+  private final Random random;
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  @Nullable private final HttpClient upstreamClient;
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong injectedErrors = new AtomicLong();
+
+  OtpStubServer(
+      Recording recording,
+      @Nullable URI upstream,
+      @Nullable String defaultResponse,
+      RequestMatcher matcher,
+      Duration latency,
+      Duration jitter,
+      double errorRate,
+      int errorStatus,
+      long bytesPerSecond,
+      long seed,
+      int port)
+      throws IOException {
+    this.recording = recording;
+    this.upstream = upstream;
+    this.defaultResponse = defaultResponse == null ? NOT_RECORDED : defaultResponse;
+    this.matcher = matcher;
+    this.latencyNanos = latency.toNanos();
+    this.jitterNanos = jitter.toNanos();
+    this.errorRate = errorRate;
+    this.errorStatus = errorStatus;
+    this.bytesPerSecond = bytesPerSecond;
+    this.random = new Random(seed);
+    this.upstreamClient =
+        upstream == null ? null : HttpClient.newBuilder().executor(executor).build();
+    if (upstream == null) {
+      recording.exchanges().forEach(matcher::add);
+    }
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+    server.createContext(GRAPHQL_PATH, this::handle);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  public static OtpStubServerBuilder builder() {
+    return new OtpStubServerBuilder();
+  }
+
+  /** The base URI, to which the client appends the GraphQL path. */
+  public String baseUri() {
+    return "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  public URI graphQLUri() {
+    return URI.create(baseUri() + GRAPHQL_PATH);
+  }
+
+  /** The replayed recording, or the one that is being recorded. */
+  public Recording recording() {
+    return recording;
+  }
+
+  /** The number of requests received so far. */
+  public long requests() {
+    return requests.get();
+  }
+
+  /** The number of requests which were answered with an injected error. */
+  public long injectedErrors() {
+    return injectedErrors.get();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      requests.incrementAndGet();
+      var request = new String(readBody(exchange), StandardCharsets.UTF_8);
+      long delay;
+      boolean fail;
+      synchronized (random) {
+        delay = latencyNanos + (jitterNanos > 0 ? random.nextLong(jitterNanos + 1) : 0);
+        fail = errorRate > 0 && random.nextDouble() < errorRate;
+      }
+      Thread.sleep(Duration.ofNanos(delay));
+      if (fail) {
+        injectedErrors.incrementAndGet();
+        respond(exchange, errorStatus, "Injected error");
+      } else if (upstream != null) {
+        var response = forward(request);
+        recording.add(new RecordedExchange(request, response.statusCode(), response.body()));
+        respond(exchange, response.statusCode(), response.body());
+      } else {
+        var recorded = matcher.find(request);
+        respond(
+            exchange,
+            recorded.map(RecordedExchange::status).orElse(200),
+            recorded.map(RecordedExchange::response).orElse(defaultResponse));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private HttpResponse<String> forward(String request) throws IOException, InterruptedException {
+    var forwarded =
+        HttpRequest.newBuilder(upstream)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(request))
+            .build();
+    return upstreamClient.send(forwarded, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static byte[] readBody(HttpExchange exchange) throws IOException {
+    InputStream body = exchange.getRequestBody();
+    if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+      body = new GZIPInputStream(body);
+    }
+    return body.readAllBytes();
+  }
+
+  private void respond(HttpExchange exchange, int status, String response)
+      throws IOException, InterruptedException {
+    var body = response.getBytes(StandardCharsets.UTF_8);
+    var accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+    if (accept != null && accept.contains("gzip")) {
+      var compressed = new ByteArrayOutputStream();
+      try (var gzip = new GZIPOutputStream(compressed)) {
+        gzip.write(body);
+      }
+      body = compressed.toByteArray();
+      exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+    }
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+    try (var out = exchange.getResponseBody()) {
+      write(out, body);
+    }
+  }
+
+  /** Write the body in chunks with pauses in between, if the bandwidth is limited. */
+  private void write(OutputStream out, byte[] body) throws IOException, InterruptedException {
+    if (bytesPerSecond == 0) {
+      out.write(body);
+      return;
+    }
+    var chunk = (int) Math.max(1, Math.min(64 * 1024, bytesPerSecond / CHUNKS_PER_SECOND));
+    for (int offset = 0; offset < body.length; offset += chunk) {
+      var length = Math.min(chunk, body.length - offset);
+      out.write(body, offset, length);
+      out.flush();
+      Thread.sleep(Duration.ofNanos(length * 1_000_000_000L / bytesPerSecond));
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    if (upstreamClient != null) {
+      upstreamClient.close();
+    }
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,132 @@
+package org.opentripplanner.stub;
+
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+
+public class OtpStubServerBuilder {
+
+  private Recording recording = Recording.empty();
+  @Nullable private URI upstream;
+  @Nullable private String defaultResponse;
+  private Set<String> ignoredVariables = Set.of();
+  private boolean lenientMatching = false;
+  private Duration latency = Duration.ZERO;
+  private Duration jitter = Duration.ZERO;
+  private double errorRate = 0;
+  private int errorStatus = 503;
+  private long bytesPerSecond = 0;
+  private long seed = 42;
+  private int port = 0;
+
+  OtpStubServerBuilder() {}
+
+  /** Replay the responses of the recording, or add to it in recording mode. */
+  public OtpStubServerBuilder withRecording(Recording recording) {
+    this.recording = Objects.requireNonNull(recording);
+    return this;
+  }
+
+  /**
+   * Forward every request to the GraphQL endpoint of a real OTP instance, like {@code
+   * https://example.com/otp/gtfs/v1}, and record the exchanges instead of replaying them.
+   */
+  public OtpStubServerBuilder withUpstream(URI graphQLUri) {
+    this.upstream = Objects.requireNonNull(graphQLUri);
+    return this;
+  }
+
+  /** The response to requests that weren't recorded, by default a GraphQL error. */
+  public OtpStubServerBuilder withDefaultResponse(String body) {
+    this.defaultResponse = Objects.requireNonNull(body);
+    return this;
+  }
+
+  /**
+   * Variables that aren't compared when looking up a recorded response, like {@code time} and
+   * {@code date}, so that a recording made at one time can be replayed at another.
+   */
+  public OtpStubServerBuilder withIgnoredVariables(String... names) {
+    this.ignoredVariables = Set.of(names);
+    return this;
+  }
+
+  /** Answer requests with unknown variables with one of the responses to the same query. */
+  public OtpStubServerBuilder withLenientMatching(boolean lenientMatching) {
+    this.lenientMatching = lenientMatching;
+    return this;
+  }
+
+  /** A fixed delay before each response. */
+  public OtpStubServerBuilder withLatency(Duration latency) {
+    this.latency = requireNonNegative(latency);
+    return this;
+  }
+
+  /** A random delay of up to the given duration, which is added to the latency. */
+  public OtpStubServerBuilder withJitter(Duration jitter) {
+    this.jitter = requireNonNegative(jitter);
+    return this;
+  }
+
+  /** Answer the given fraction of requests with an HTTP 503 error instead of the response. */
+  public OtpStubServerBuilder withErrorRate(double errorRate) {
+    return withErrorRate(errorRate, 503);
+  }
+
+  /** Answer the given fraction of requests with an HTTP error instead of the response. */
+  public OtpStubServerBuilder withErrorRate(double errorRate, int status) {
+    if (errorRate < 0 || errorRate > 1) {
+      throw new IllegalArgumentException("errorRate must be between 0 and 1");
+    }
+    this.errorRate = errorRate;
+    this.errorStatus = status;
+    return this;
+  }
+
+  /** Limit the rate at which each response body is written, 0 for no limit. */
+  public OtpStubServerBuilder withBandwidth(long bytesPerSecond) {
+    if (bytesPerSecond < 0) {
+      throw new IllegalArgumentException("bytesPerSecond must not be negative");
+    }
+    this.bytesPerSecond = bytesPerSecond;
+    return this;
+  }
+
+  /** The seed of the jitter and of the injected errors, so that runs can be repeated. */
+  public OtpStubServerBuilder withSeed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /** The port to listen on, by default a free one. */
+  public OtpStubServerBuilder withPort(int port) {
+    this.port = port;
+    return this;
+  }
+
+  public OtpStubServer start() throws IOException {
+    return new OtpStubServer(
+        recording,
+        upstream,
+        defaultResponse,
+        new RequestMatcher(ignoredVariables, lenientMatching),
+        latency,
+        jitter,
+        errorRate,
+        errorStatus,
+        bytesPerSecond,
+        seed,
+        port);
+  }
+
+  private static Duration requireNonNegative(Duration duration) {
+    if (duration.isNegative()) {
+      throw new IllegalArgumentException("duration must not be negative");
+    }
+    return duration;
+  }
+}
@@ -0,0 +1,17 @@
+package org.opentripplanner.stub;
+
+import java.util.Objects;
+
+/**
+ * A GraphQL request and the response of the server to it.
+ *
+ * @param request the JSON body of the request
+ * @param status the HTTP status code of the response
+ * @param response the body of the response, uncompressed
+ */
+public record RecordedExchange(String request, int status, String response) {
+  public RecordedExchange {
+    Objects.requireNonNull(request);
+    Objects.requireNonNull(response);
+  }
+}
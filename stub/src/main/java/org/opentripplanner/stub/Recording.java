@@ -0,0 +1,92 @@
+package org.opentripplanner.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Request and response pairs which were captured by an {@link OtpStubServer} in recording mode and
+ * can be replayed by another one.
+ *
+ * <p>Recordings are stored as JSON lines, one exchange per line with the fields {@code request},
+ * {@code status} and {@code response}. Request and response bodies are embedded as JSON, so the
+ * files can be edited by hand.
+ */
+public final class Recording {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final List<RecordedExchange> exchanges = new CopyOnWriteArrayList<>();
+
+  private Recording() {}
+
+  public static Recording empty() {
+    return new Recording();
+  }
+
+  public static Recording of(List<RecordedExchange> exchanges) {
+    var recording = new Recording();
+    recording.exchanges.addAll(exchanges);
+    return recording;
+  }
+
+  public static Recording load(Path file) throws IOException {
+    var exchanges = new ArrayList<RecordedExchange>();
+    for (var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      if (line.isBlank()) {
+        continue;
+      }
+      var json = MAPPER.readTree(line);
+      exchanges.add(
+          new RecordedExchange(
+              text(json.path("request")),
+              json.path("status").asInt(200),
+              text(json.path("response"))));
+    }
+    return of(exchanges);
+  }
+
+  public void save(Path file) throws IOException {
+    var lines = new ArrayList<String>(exchanges.size());
+    for (var exchange : exchanges) {
+      var json = MAPPER.createObjectNode();
+      json.set("request", embed(exchange.request()));
+      json.put("status", exchange.status());
+      json.set("response", embed(exchange.response()));
+      lines.add(MAPPER.writeValueAsString(json));
+    }
+    Files.write(file, lines, StandardCharsets.UTF_8);
+  }
+
+  public void add(RecordedExchange exchange) {
+    exchanges.add(exchange);
+  }
+
+  public List<RecordedExchange> exchanges() {
+    return List.copyOf(exchanges);
+  }
+
+  public int size() {
+    return exchanges.size();
+  }
+
+  /** Embed a body as JSON if it is valid JSON, otherwise as a string. */
+  private static JsonNode embed(String body) {
+    try {
+      return MAPPER.readTree(body);
+    } catch (JsonProcessingException e) {
+      return MAPPER.getNodeFactory().textNode(body);
+    }
+  }
+
+  private static String text(JsonNode node) throws JsonProcessingException {
+    return node.isTextual() ? node.asText() : MAPPER.writeValueAsString(node);
+  }
+}
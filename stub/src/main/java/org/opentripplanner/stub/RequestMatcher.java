@@ -0,0 +1,120 @@
+package org.opentripplanner.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the recorded response to a request.
+ *
+ * <p>Requests are matched by the SHA-256 hash of their query document, so that requests with the
+ * full document and persisted queries which only send the hash are treated alike, and by their
+ * variables, apart from the ignored ones. If several responses were recorded for a request they are
+ * returned in turn. With lenient matching, a request whose variables weren't recorded gets one of
+ * the responses to the same query instead.
+ */
+final class RequestMatcher {
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+  private final Set<String> ignoredVariables;
+  private final boolean lenient;
+  private final Map<String, Responses> byRequest = new ConcurrentHashMap<>();
+  private final Map<String, Responses> byQuery = new ConcurrentHashMap<>();
+
+  RequestMatcher(Set<String> ignoredVariables, boolean lenient) {
+    this.ignoredVariables = Set.copyOf(ignoredVariables);
+    this.lenient = lenient;
+  }
+
+  void add(RecordedExchange exchange) {
+    var key = key(exchange.request());
+    byRequest.computeIfAbsent(key.request(), k -> new Responses()).add(exchange);
+    byQuery.computeIfAbsent(key.query(), k -> new Responses()).add(exchange);
+  }
+
+  Optional<RecordedExchange> find(String request) {
+    var key = key(request);
+    var exact = byRequest.get(key.request());
+    if (exact != null) {
+      return Optional.of(exact.next());
+    }
+    var sameQuery = lenient ? byQuery.get(key.query()) : null;
+    return Optional.ofNullable(sameQuery).map(Responses::next);
+  }
+
+  private Key key(String request) {
+    JsonNode json;
+    try {
+      json = MAPPER.readTree(request);
+    } catch (JsonProcessingException e) {
+      return new Key(request, request);
+    }
+    var query = json.path("query");
+    var hash =
+        query.isTextual()
+            ? sha256(query.asText())
+            : json.path("extensions").path("persistedQuery").path("sha256Hash").asText();
+    var variables = json.path("variables");
+    if (variables instanceof ObjectNode object) {
+      var copy = object.deepCopy();
+      copy.properties().removeIf(e -> isIgnored(e.getKey()));
+      variables = copy;
+    }
+    try {
+      // the tree is converted to a map, so that the keys are sorted
+      var canonical = MAPPER.writeValueAsString(MAPPER.treeToValue(variables, Object.class));
+      return new Key(hash + canonical, hash);
+    } catch (JsonProcessingException e) {
+      return new Key(request, hash);
+    }
+  }
+
+  /** Ignored variables also match the variables of batched queries, like {@code p0_time}. */
+  private boolean isIgnored(String name) {
+    if (ignoredVariables.contains(name)) {
+      return true;
+    }
+    var separator = name.indexOf('_');
+    return separator >= 0 && ignoredVariables.contains(name.substring(separator + 1));
+  }
+
+  private static String sha256(String text) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Key(String request, String query) {}
+
+  private static final class Responses {
+
+    private final List<RecordedExchange> exchanges = new CopyOnWriteArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    void add(RecordedExchange exchange) {
+      exchanges.add(exchange);
+    }
+
+    RecordedExchange next() {
+      return exchanges.get(Math.floorMod(next.getAndIncrement(), exchanges.size()));
+    }
+  }
+}
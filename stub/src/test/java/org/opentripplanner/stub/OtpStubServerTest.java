@@ -0,0 +1,102 @@
+package org.opentripplanner.stub;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Range;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OtpStubServerTest {
+
+  private static final String QUERY = "query plan($time: String, $from: String) { plan { x } }";
+  private static final String PLAN = "{\"data\":{\"plan\":{\"x\":1}}}";
+
+  private final HttpClient http = HttpClient.newHttpClient();
+
+  @Test
+  void recordsAndReplays(@TempDir Path dir) throws Exception {
+    var file = dir.resolve("recording.jsonl");
+    try (var upstream = OtpStubServer.builder().withDefaultResponse(PLAN).start();
+        var recorder = OtpStubServer.builder().withUpstream(upstream.graphQLUri()).start()) {
+      var response = post(recorder.graphQLUri(), request("12:00", "A"));
+      assertThat(response.statusCode()).isEqualTo(200);
+      assertThat(response.body()).isEqualTo(PLAN);
+      recorder.recording().save(file);
+    }
+
+    var recording = Recording.load(file);
+    assertThat(recording.size()).isEqualTo(1);
+    try (var replay =
+        OtpStubServer.builder().withRecording(recording).withIgnoredVariables("time").start()) {
+      // the variables are compared regardless of their order, and the time is ignored
+      var response =
+          post(
+              replay.graphQLUri(),
+              "{\"variables\":{\"from\":\"A\",\"time\":\"13:00\"},\"query\":\"%s\"}"
+                  .formatted(QUERY));
+      assertThat(response.body()).isEqualTo(PLAN);
+
+      var unknown = post(replay.graphQLUri(), request("12:00", "B"));
+      assertThat(unknown.body()).contains("No response was recorded");
+    }
+  }
+
+  @Test
+  void lenientMatching() throws Exception {
+    var recording = Recording.of(List.of(new RecordedExchange(request("1", "A"), 200, PLAN)));
+    try (var replay =
+        OtpStubServer.builder().withRecording(recording).withLenientMatching(true).start()) {
+      assertThat(post(replay.graphQLUri(), request("2", "B")).body()).isEqualTo(PLAN);
+    }
+  }
+
+  @Test
+  void injectsFaults() throws Exception {
+    try (var stub =
+        OtpStubServer.builder()
+            .withDefaultResponse(PLAN)
+            .withErrorRate(0.5, 502)
+            .withLatency(Duration.ofMillis(5))
+            .withJitter(Duration.ofMillis(5))
+            .withBandwidth(10_000)
+            .withSeed(1)
+            .start()) {
+      var errors = 0;
+      var start = System.nanoTime();
+      for (int i = 0; i < 20; i++) {
+        var response = post(stub.graphQLUri(), request("1", "A"));
+        if (response.statusCode() == 502) {
+          errors++;
+        } else {
+          assertThat(response.body()).isEqualTo(PLAN);
+        }
+      }
+      assertThat(Duration.ofNanos(System.nanoTime() - start)).isAtLeast(Duration.ofMillis(100));
+      assertThat(errors).isIn(Range.closed(3, 17));
+      assertThat(stub.injectedErrors()).isEqualTo(errors);
+      assertThat(stub.requests()).isEqualTo(20);
+    }
+  }
+
+  private static String request(String time, String from) {
+    return "{\"query\":\"%s\",\"variables\":{\"time\":\"%s\",\"from\":\"%s\"}}"
+        .formatted(QUERY, time, from);
+  }
+
+  private HttpResponse<String> post(URI uri, String body) throws IOException, InterruptedException {
+    var request =
+        HttpRequest.newBuilder(uri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    return http.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+}